@@ -1,6 +1,8 @@
 package org.frogforce503.lib.drivers;
 
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.frogforce503.lib.drivers.CANMotor.MotorControlMode;
 import com.ctre.phoenix.motorcontrol.ControlMode;
@@ -8,6 +10,8 @@ import com.revrobotics.spark.SparkBase.ControlType;
 
 public interface BaseMotorWrapper {
     void applyMotorConfig(boolean shouldFactoryDefault, boolean shouldBurnConfig);
+    CompletableFuture<?> applyMotorConfigAsync(boolean shouldBurnConfig);
+    boolean applyMotorConfigIfChanged();
 
     // PID Configuration
     void selectProfileSlot(int slotID);
@@ -18,16 +22,46 @@ public interface BaseMotorWrapper {
     double getD(int slot);
     double getF(int slot);
 
+    // Config mirror, gain and idle mode getters are served from it
+    MotorConfigMirror getConfigMirror();
+
+    /** Reads the config back from the device off the main loop, completes with every value that drifted from the mirror. */
+    CompletableFuture<List<String>> verifyAgainstDevice();
+
     // Request setpoint to a motor controller
     void set(MotorControlMode mode, double value, double arbFF);
 
+    /** Makes the next {@code set} reach the device even if it repeats the last setpoint. */
+    void forceNextSet();
+
     // Other configuration changes
     void setMotorInverted(boolean inverted);
     void setIdleMode(boolean shouldCoast);
     void setEncoderPosition(double position);
     void configureProfiled(int slotID, double maxVel, double maxAcc, double tolerance);
+    void configureGravity(int slotID, GravityType type, double kG);
     void setConversionFactor(double convFactor, ConversionFactorType type);
 
+    /** Sets the current limit in amps, pushed by the next config apply or by {@link #applyCurrentLimitAsync()}. */
+    void setCurrentLimit(double amps);
+
+    /** Queues just the current limit on the {@link MotorConfigWorker}, without the rest of the config and without burning flash. */
+    CompletableFuture<?> applyCurrentLimitAsync();
+
+    /** Puts this motor in hardware follow mode, mirroring (or opposing) the leader's output without its own setpoints. */
+    void follow(BaseMotorWrapper leader, boolean opposeLeader);
+
+    // CAN status frame rates
+    void setCANProfile(CANProfile profile);
+    CANProfile getCANProfile();
+
+    /** Lowest rate (Hz) of the position and velocity frames whatever the CAN profile, for high rate sampling, 0 for none. */
+    void setFeedbackRateFloor(double hz);
+    double getFeedbackRateFloor();
+
+    // CAN traffic accounting, published by CANTrafficMonitor
+    CANTrafficCounter getTraffic();
+
     // Getters
     String getIdleMode();
 
@@ -35,8 +69,39 @@ public interface BaseMotorWrapper {
     double getMotorPosition();
     double getMotorVelocity();
 
+    /** Fills {@code out} with position and velocity and the time they were measured, without allocating. */
+    void sample(MotorSample out);
+
     double getOutputCurrent();
     double getTemperature();
+    double getBusVoltage();
+
+    /** Active faults as a bitfield in the vendor's layout, read on demand (poll it, see {@link SignalPoller}). */
+    int getFaultBits();
+
+    /**
+     * Status frame rate profile of a motor controller.
+     * <ul>
+     *  <li>{@code Default}: Full rate feedback, use while the mechanism is being controlled.</li>
+     *  <li>{@code Idle}: Slower feedback, use when a mechanism is idle but may be commanded again soon.</li>
+     *  <li>{@code Low}: Minimal feedback for minimal CAN utilization, use for motors nobody is reading.</li>
+     * </ul>
+     */
+    public enum CANProfile {
+        Low, Idle, Default
+    }
+
+    /**
+     * Shape of the gravity load on a mechanism, for the closed loop's gravity feedforward.
+     * <ul>
+     *  <li>{@code Elevator}: Constant load, {@code kG} is applied as is.</li>
+     *  <li>{@code Arm}: {@code kG * cos(position)}, the position must be in mechanism rotations with 0 being horizontal.</li>
+     * </ul>
+     */
+    public enum GravityType {
+        Elevator,
+        Arm
+    }
 
     /** Type of conversion to use, either {@code POSITION} or {@code VELOCITY} */
     public enum ConversionFactorType {
@@ -50,6 +115,7 @@ public interface BaseMotorWrapper {
         put(MotorControlMode.Position, ControlMode.Position);
         put(MotorControlMode.Velocity, ControlMode.Velocity);
         put(MotorControlMode.ProfiledPosition, ControlMode.MotionMagic);
+        put(MotorControlMode.ProfiledVelocity, ControlMode.Velocity); // Phoenix 5 has no profiled velocity, runs unprofiled
     }};
 
     /** Mapping of {@link CANMotor}'s {@link MotorControlMode} to REV's {@link ControlType} */
@@ -59,5 +125,6 @@ public interface BaseMotorWrapper {
         put(MotorControlMode.Velocity, ControlType.kVelocity);
         put(MotorControlMode.Voltage, ControlType.kVoltage);
         put(MotorControlMode.ProfiledPosition, ControlType.kMAXMotionPositionControl);
+        put(MotorControlMode.ProfiledVelocity, ControlType.kMAXMotionVelocityControl);
     }};
 }
\ No newline at end of file
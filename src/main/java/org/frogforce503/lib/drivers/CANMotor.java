@@ -1,143 +1,74 @@
 package org.frogforce503.lib.drivers;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleSupplier;
+
+import org.frogforce503.lib.drivers.BaseMotorWrapper.CANProfile;
 import org.frogforce503.lib.drivers.BaseMotorWrapper.ConversionFactorType;
+import org.frogforce503.lib.drivers.BaseMotorWrapper.GravityType;
 import org.frogforce503.lib.drivers.CTRE.TalonFXWrapper;
 import org.frogforce503.lib.drivers.CTRE.TalonSRXWrapper;
 import org.frogforce503.lib.drivers.REV.SparkFlexWrapper;
 import org.frogforce503.lib.drivers.REV.SparkMaxWrapper;
+import org.frogforce503.lib.drivers.SetpointSendPolicy.Decision;
+import org.frogforce503.lib.drivers.SignalPoller.PolledSignal;
+import org.frogforce503.lib.drivers.SignalPoller.Signal;
+import org.frogforce503.lib.drivers.SignalPoller.Tier;
 
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.Timer;
 
 public class CANMotor {
+    /** Requested current limits closer than this to the one on the device are not pushed. */
+    private static final double CURRENT_LIMIT_HYSTERESIS = 2.0;
+
+    /** Minimum seconds between current limit pushes to the same device. */
+    private static final double CURRENT_LIMIT_MIN_INTERVAL = 0.25;
 
     private final CANMotorType motorType;
     private final int CAN_ID;
 
     private BaseMotorWrapper motor;
 
-    public Sim sim;
+    public CANMotorSim sim;
 
-    private double lastSetpoint = 503.6328;
-    private double lastFF = 503.6328;
+    private boolean hasSetpoint = false;
+    private double lastSetpoint = 0.0;
     private MotorControlMode lastControlMode = null;
 
-    private static class Sim {
-        private double timeForOne; // number of seconds to complete a full revolution
-        private double timeConstantFactor; // MOTOR IS MODELED AS LOGARITHMIC GROWTH, LIKE A CHARGING CAPACITOR
-        private double CPR;
-
-        private Setpoint lastCommand;
-        private double lastUpdateTime;
-        private double lastPosition = 0;
-        
-        private double currentPosition = 0;
-        private double currentVelocity = 0;
-
-        public Sim(double timeConstantFactor, double CPR) {
-            this.timeConstantFactor = timeConstantFactor;
-            this.timeForOne = Math.sqrt(timeConstantFactor); // 5 * (1 / timeConstantFactor); // https://www.electronics-tutorials.ws/rc/rc_1.html
-            this.CPR = CPR;
-
-            this.lastCommand = new Setpoint(Timer.getFPGATimestamp(), MotorControlMode.PercentOutput, 0, 0);
-            this.lastUpdateTime = Timer.getFPGATimestamp();
-        }
-
-        public void set(MotorControlMode controlMode, double value) {
-            if (controlMode == MotorControlMode.Position || controlMode == MotorControlMode.ProfiledPosition)
-                value /= CPR;
-            
-            else if (controlMode == MotorControlMode.Velocity)
-                value *= 60;
+    private final SetpointSendPolicy sendPolicy = new SetpointSendPolicy();
 
-            lastCommand = new Setpoint(Timer.getFPGATimestamp(), controlMode, value, this.currentPosition);
-        }
+    private double requestedCurrentLimit = Double.NaN;
+    private double thermalCeiling = Double.POSITIVE_INFINITY;
+    private double pushedCurrentLimit = Double.NaN;
+    private double lastCurrentLimitPush = Double.NEGATIVE_INFINITY;
 
-        public void update() {
-            // updates speed and position
-            double time = Timer.getFPGATimestamp();
-
-            switch(lastCommand.controlMode) {
-                case PercentOutput: {
-                    this.currentVelocity = (1 / this.timeForOne) * this.lastCommand.demand; // basically, 1.0 power is max velocity
-                    this.currentPosition += (time - this.lastUpdateTime) * this.currentVelocity;
-                    break;
-                }
-                case Voltage: {
-                    this.currentVelocity = (1 / this.timeForOne) * this.lastCommand.demand / 12.0; // basically, 12 Volts is max velocity
-                    this.currentPosition += (time - this.lastUpdateTime) * this.currentVelocity;
-                    break;
-                }
-                case ProfiledVelocity:
-                case Velocity: {
-                    this.currentVelocity = this.lastCommand.demand;
-                    this.currentPosition += (time - this.lastUpdateTime) * this.currentVelocity;
-                    break;
-                }
-                case ProfiledPosition:
-                case Position: {
-                    // https://www.desmos.com/calculator/euno0nwy5h
-                    double t = time - this.lastCommand.startTimestamp;
-
-                    if (Math.abs(lastCommand.demand - this.currentPosition) < 0.01) {
-                        this.currentPosition = lastCommand.demand;
-                        break;
-                    }
-
-                    double a = this.lastCommand.demand - this.lastCommand.initialPosition;
-                    double b = Math.abs(a) * (1 / this.timeConstantFactor);
-
-                    double e = Math.pow(Math.E, -t/b);
-
-                    double r = (Math.abs(a) * (1 - e));
-
-                    this.currentPosition = (a < 0 ? -r : r) + this.lastCommand.initialPosition;
-                    this.currentVelocity = (this.currentPosition - this.lastPosition) - (time - this.lastUpdateTime);
-
-                    break;
-                }
-            }
-
-            this.lastPosition = this.currentPosition;
-            this.lastUpdateTime = time;
-        }
+    private boolean simOwnedByCapture = false;
 
-        public double getPosition() {
-            return (this.currentPosition * this.CPR);
-        }
+    private boolean batched = false;
+    private boolean hasPending = false;
+    private MotorControlMode pendingControlMode;
+    private double pendingSetpoint;
+    private double pendingFF;
 
-        public double getVelocity() {
-            return (this.currentVelocity * this.CPR) / 60;
-        }
+    // Setpoint held back by the send policy's minimum resend interval, sent by CANMotorDispatcher.flush()
+    private boolean hasHeld = false;
+    private MotorControlMode heldControlMode;
+    private double heldSetpoint;
+    private double heldFF;
 
-        public void setEncoderPosition(double position) {
-            this.currentPosition = position / this.CPR;
-        }
+    // Last setpoint given to the wrapper, resent every loop when the wrapper computes an arm gravity feedforward
+    private MotorControlMode sentControlMode = null;
+    private double sentSetpoint;
+    private double sentFF;
 
-        private class Setpoint {
-            public final double startTimestamp;
-            public final MotorControlMode controlMode;
-            public final double demand;
-            public final double initialPosition;
-
-            public final double journeyDuration;
-
-            public Setpoint(double t, MotorControlMode m, double d, double i) {
-                this.startTimestamp = t;
-                this.controlMode = m;
-                this.demand = d;
-                this.initialPosition = i;
-
-                if (this.controlMode == MotorControlMode.Position) {
-                    this.journeyDuration = timeForOne * (d - i);
-                } else {
-                    this.journeyDuration = 0;
-                }
-            }
-        }
-    }
+    // Set while a SysIdCapture sends from its own thread, every loop side path leaves the wrapper alone meanwhile
+    private volatile boolean directControl = false;
 
     private CANMotor(CANMotorType type, int CAN_ID, String canBus, MotorType revMotorType, boolean hasExternalEncoder) {
         this.motorType = type;
@@ -155,12 +86,21 @@ public class CANMotor {
     }
 
     /**
-     * configure parameters for motor simulation
-     * @param timeConstantFactor technically wrong in terms of physics, but just know that bigger = faster
-     * @param CPR counts per rotation of the motor, this is the scale at which the thing will move
+     * configure parameters for motor simulation, call it before {@link #configureProfiled}, the closed loop uses the gains of every slot configured so far
+     * @param gearbox motors driven by this controller, e.g. {@code DCMotor.getNEO(1)}
+     * @param gearing motor rotations per mechanism rotation
+     * @param moi moment of inertia of the mechanism in kg m^2
+     * @param positionFactor position units per mechanism rotation, matching the position conversion factor
+     * @param velocityFactor velocity units per mechanism rotation per second (60 for RPM)
      */
-    public void configureSim(double timeConstantFactor, double CPR) {
-        this.sim = new Sim(timeConstantFactor, CPR);
+    public void configureSim(DCMotor gearbox, double gearing, double moi, double positionFactor, double velocityFactor) {
+        this.sim = new CANMotorSim(motorType, gearbox, gearing, moi, positionFactor, velocityFactor);
+
+        for (int slot = 0; slot < MotorConfigMirror.SLOT_COUNT; slot++) {
+            sim.setGains(slot, motor.getP(slot), motor.getI(slot), motor.getD(slot), motor.getF(slot));
+        }
+
+        sim.selectSlot(motor.getSelectedProfileSlot());
     }
 
     // Factory Methods
@@ -192,6 +132,14 @@ public class CANMotor {
         return new CANMotor(CANMotorType.TALON_SRX, id, null, null, false);
     }
 
+    public CANMotorType getMotorType() {
+        return motorType;
+    }
+
+    public int getCANID() {
+        return CAN_ID;
+    }
+
     public SparkMaxWrapper getSparkMax() {
         return (SparkMaxWrapper) motor;
     }
@@ -213,28 +161,98 @@ public class CANMotor {
     }
 
     public double getOutputCurrent() {
+        if (RobotBase.isSimulation() && sim != null) // followers have no plant of their own
+            return sim.getCurrent();
+
         return motor.getOutputCurrent();
     }
 
+    /** Current drawn from the battery, estimated from the output current and duty cycle (supply = output * |duty|). */
+    public double getSupplyCurrent() {
+        if (RobotBase.isSimulation() && sim != null)
+            return Math.abs(sim.getCurrent() * sim.getAppliedVoltage()) / Math.max(RobotController.getBatteryVoltage(), 1.0);
+
+        return Math.abs(motor.getOutputCurrent() * motor.getMotorPercent());
+    }
+
     public double getTemperature() {
         return motor.getTemperature();
     }
 
+    public int getFaultBits() {
+        return motor.getFaultBits();
+    }
+
+    public double getBusVoltage() {
+        if (RobotBase.isSimulation())
+            return RobotController.getBatteryVoltage();
+
+        return motor.getBusVoltage();
+    }
+
+    /**
+     * Reads a signal of this motor at the rate of a tier instead of every loop, see {@link SignalPoller}.
+     *
+     * @return Holder of the latest value and its age
+     */
+    public PolledSignal poll(Signal signal, Tier tier) {
+        DoubleSupplier reader;
+
+        switch (signal) {
+            case POSITION:
+                reader = this::getPosition;
+                break;
+            case VELOCITY:
+                reader = this::getVelocity;
+                break;
+            case OUTPUT:
+                reader = this::getPercent;
+                break;
+            case CURRENT:
+                reader = this::getOutputCurrent;
+                break;
+            case TEMPERATURE:
+                reader = this::getTemperature;
+                break;
+            case FAULTS:
+                reader = () -> getFaultBits();
+                break;
+            default:
+                reader = this::getBusVoltage;
+                break;
+        }
+
+        return SignalPoller.getInstance().register(reader, tier);
+    }
+
     public void selectProfileSlot(int slotID) {
         motor.selectProfileSlot(slotID);
+
+        if (sim != null)
+            sim.selectSlot(slotID);
     }
 
     public int getSelectedProfileSlot() {
         return motor.getSelectedProfileSlot();
     }
 
-    public void setPID(int slot, double p, double i, double d) {
-        setPIDF(slot, p, i, d, 0.0);
+    public CompletableFuture<?> setPID(int slot, double p, double i, double d) {
+        return setPIDF(slot, p, i, d, 0.0);
     }
 
-    public void setPIDF(int slot, double p, double i, double d, double f) {
+    /**
+     * Updates the gains of a slot and queues the change on the {@link MotorConfigWorker}, so live tuning never
+     * blocks the loop. Nothing is written to flash, call {@link #persistConfig()} once the gains are final.
+     *
+     * @return Future completed with the vendor's error code once the gains are applied
+     */
+    public CompletableFuture<?> setPIDF(int slot, double p, double i, double d, double f) {
         motor.setPIDF(slot, p, i, d, f);
-        noResetButUpdateConfig();
+
+        if (sim != null)
+            sim.setGains(slot, p, i, d, f);
+
+        return motor.applyMotorConfigAsync(false);
     }
 
     public double getP(int slot) {
@@ -269,14 +287,134 @@ public class CANMotor {
         return getF(0);
     }
 
+    /** Configuration the wrapper last set, served locally, see {@link MotorConfigMirror}. */
+    public MotorConfigMirror getConfigMirror() {
+        return motor.getConfigMirror();
+    }
+
+    /**
+     * Reads the configuration back from the device on the {@link MotorConfigWorker} and reports whatever drifted
+     * from the mirror. Only meaningful once the configuration was applied.
+     *
+     * @return Future completed with a description of every drifted value
+     */
+    public CompletableFuture<List<String>> verifyConfig() {
+        return motor.verifyAgainstDevice();
+    }
+
     public void configureProfiled(int slotID, double maxVel, double maxAcc, double tol) {
         motor.configureProfiled(slotID, maxVel, maxAcc, tol);
+
+        if (sim != null)
+            sim.setProfileConstraints(slotID, maxVel, maxAcc);
     }
 
     public void setConversionFactor(double factor, ConversionFactorType type) {
         motor.setConversionFactor(factor, type);
     }
 
+    /** Sets the current limit for the next config apply, use {@link #requestCurrentLimit} to change it at runtime. */
+    public void setCurrentLimit(double amps) {
+        motor.setCurrentLimit(amps);
+
+        if (sim != null)
+            sim.setCurrentLimit(amps);
+
+        requestedCurrentLimit = amps;
+        pushedCurrentLimit = amps;
+    }
+
+    /**
+     * Changes the current limit at runtime, e.g. from the {@link PowerGovernor}. The request is only pushed when it
+     * differs from the limit on the device by more than the hysteresis and the last push is old enough, so a
+     * caller may request a limit every loop. Only the current limit is sent, off the main loop.
+     * The limit never exceeds the thermal ceiling, see {@link #setThermalCeiling}.
+     *
+     * @return If the request was pushed
+     */
+    public boolean requestCurrentLimit(double amps) {
+        requestedCurrentLimit = amps;
+        return pushCurrentLimit();
+    }
+
+    /**
+     * Caps the current limit while the motor is hot, set every loop by the {@link MotorThermalMonitor}.
+     * Goes through the same hysteresis and rate limit as {@link #requestCurrentLimit}.
+     *
+     * @return If the resulting limit was pushed
+     */
+    public boolean setThermalCeiling(double amps) {
+        thermalCeiling = amps;
+        return pushCurrentLimit();
+    }
+
+    private boolean pushCurrentLimit() {
+        // Without a requested limit the ceiling alone applies
+        double amps = Double.isNaN(requestedCurrentLimit) ? thermalCeiling : Math.min(requestedCurrentLimit, thermalCeiling);
+
+        if (Double.isInfinite(amps))
+            return false;
+
+        double now = Timer.getFPGATimestamp();
+
+        if (Math.abs(amps - pushedCurrentLimit) < CURRENT_LIMIT_HYSTERESIS || now - lastCurrentLimitPush < CURRENT_LIMIT_MIN_INTERVAL)
+            return false;
+
+        motor.setCurrentLimit(amps);
+        motor.applyCurrentLimitAsync();
+
+        if (sim != null)
+            sim.setCurrentLimit(amps);
+
+        pushedCurrentLimit = amps;
+        lastCurrentLimitPush = now;
+        return true;
+    }
+
+    /** Current limit last set or pushed, NaN if none was. */
+    public double getCurrentLimit() {
+        return pushedCurrentLimit;
+    }
+
+    /**
+     * Adds a gravity feedforward to every closed loop setpoint of a slot, on top of the arbitrary feedforward.
+     * TalonFX runs it on the controller, REV and TalonSRX compute it from the last read position, and for an arm
+     * {@link CANMotorDispatcher#flush()} re-evaluates it every loop even when the setpoint does not change.
+     *
+     * @param kG Gravity feedforward, in the units of the arbitrary feedforward (volts on REV, amps on TalonFX, percent on TalonSRX)
+     */
+    public void configureGravity(int slotID, GravityType type, double kG) {
+        motor.configureGravity(slotID, type, kG);
+
+        if (motorType != CANMotorType.TALON_FX && type == GravityType.Arm && kG != 0.0) {
+            CANMotorDispatcher.getInstance().refreshGravity(this);
+        }
+    }
+
+    /**
+     * Changes how often the motor controller reports its status. Drop idle mechanisms to
+     * {@link CANProfile#Idle} or {@link CANProfile#Low} and bring them back to {@link CANProfile#Default} when active.
+     */
+    public void setCANProfile(CANProfile profile) {
+        motor.setCANProfile(profile);
+    }
+
+    public CANProfile getCANProfile() {
+        return motor.getCANProfile();
+    }
+
+    /**
+     * Keeps the position and velocity frames at least this fast (Hz) under every CAN profile, so a high rate sampler
+     * still gets fresh values after the mechanism changes profile. 0 removes the floor.
+     */
+    public void setFeedbackRateFloor(double hz) {
+        motor.setFeedbackRateFloor(hz);
+    }
+
+    public double getFeedbackRateFloor() {
+        return motor.getFeedbackRateFloor();
+    }
+
     public void applyMotorConfig(boolean shouldFactoryDefault, boolean shouldBurnConfig) {
         motor.applyMotorConfig(shouldFactoryDefault, shouldBurnConfig);
     }
@@ -285,6 +423,16 @@ public class CANMotor {
         applyMotorConfig(true, true);
     }
 
+    /**
+     * Boot-time alternative to {@link #resetAndUpdateConfig()} that skips the push (and the flash burn) when the
+     * configuration is the same as the last one applied, see {@link MotorConfigCache}.
+     *
+     * @return If the device now holds the configuration (unchanged, or pushed successfully)
+     */
+    public boolean applyConfigIfChanged() {
+        return motor.applyMotorConfigIfChanged();
+    }
+
     public void noResetButUpdateConfig() {
         applyMotorConfig(false, true);
     }
@@ -293,20 +441,164 @@ public class CANMotor {
         applyMotorConfig(false, false);
     }
 
-    public void set(MotorControlMode mode, double value, double arbFF) {
+    /** Queues the current configuration to be applied and written to flash off the main loop. */
+    public CompletableFuture<?> persistConfig() {
+        return motor.applyMotorConfigAsync(true);
+    }
 
-        if (mode == this.lastControlMode && value == this.lastSetpoint && arbFF == this.lastFF)
+    /**
+     * Opts this motor in or out of loop-boundary batching. While batched, {@code set} only records
+     * the requested setpoint and {@link CANMotorDispatcher#flush()} sends the last one at the end of the loop.
+     */
+    public void setBatched(boolean batched) {
+        if (batched == this.batched)
             return;
 
-        if (RobotBase.isSimulation()) {
-            this.sim.set(mode, value);
+        this.batched = batched;
+
+        if (batched) {
+            CANMotorDispatcher.getInstance().register(this);
+        } else {
+            CANMotorDispatcher.getInstance().unregister(this);
         }
+    }
 
-        motor.set(mode, value, arbFF);
+    public boolean isBatched() {
+        return batched;
+    }
 
+    public void set(MotorControlMode mode, double value, double arbFF) {
+        if (directControl)
+            return;
+
+        if (batched) {
+            if (hasPending)
+                CANMotorDispatcher.getInstance().recordSaved();
+
+            this.pendingControlMode = mode;
+            this.pendingSetpoint = value;
+            this.pendingFF = arbFF;
+            this.hasPending = true;
+            return;
+        }
+
+        write(mode, value, arbFF);
+    }
+
+    boolean hasPendingSetpoint() {
+        return hasPending;
+    }
+
+    /** Sends the pending setpoint of a batched motor, returns whether it actually reached the motor controller. */
+    boolean flushPendingSetpoint() {
+        if (!hasPending)
+            return false;
+
+        hasPending = false;
+        return write(pendingControlMode, pendingSetpoint, pendingFF);
+    }
+
+    boolean hasHeldSetpoint() {
+        return hasHeld;
+    }
+
+    /** Retries the setpoint the send policy held back, returns whether it reached the motor controller. */
+    boolean flushHeldSetpoint() {
+        if (!hasHeld)
+            return false;
+
+        return write(heldControlMode, heldSetpoint, heldFF);
+    }
+
+    /**
+     * Resends the last closed loop setpoint so the wrapper recomputes kG cos(position) from the current position,
+     * the wrapper only puts it on the bus when the feedforward changed.
+     */
+    void refreshGravityFeedforward() {
+        if (directControl || sentControlMode == null || sentControlMode == MotorControlMode.PercentOutput || sentControlMode == MotorControlMode.Voltage)
+            return;
+
+        motor.set(sentControlMode, sentSetpoint, sentFF);
+    }
+
+    /**
+     * Hands the motor to a single owner (a {@link SysIdCapture}) that sends with {@link #setDirect} or drives the sim
+     * plant itself, bypassing batching, the send policy and the wrapper's dedup. Until {@link #endDirectControl()},
+     * {@code set} and the dispatcher's resends do nothing.
+     */
+    void beginDirectControl() {
+        setBatched(false);
+
+        this.hasHeld = false;
+        this.sentControlMode = null;
+        this.directControl = true;
+    }
+
+    /** Sends a setpoint right away, only from the thread that called {@link #beginDirectControl()} or its callback. */
+    void setDirect(MotorControlMode mode, double value) {
+        motor.forceNextSet();
+        motor.set(mode, value, 0.0);
+    }
+
+    /** Gives the motor back to {@code set}, the next setpoint is sent no matter what the policy last saw. */
+    void endDirectControl() {
+        this.directControl = false;
+        sendPolicy.reset();
+    }
+
+    private boolean write(MotorControlMode mode, double value, double arbFF) {
+        if (directControl)
+            return false;
+
+        this.hasSetpoint = true;
         this.lastSetpoint = value;
         this.lastControlMode = mode;
-        this.lastFF = arbFF;
+
+        Decision decision = sendPolicy.decide(mode, value, arbFF);
+
+        if (decision == Decision.HOLD) {
+            this.heldControlMode = mode;
+            this.heldSetpoint = value;
+            this.heldFF = arbFF;
+            this.hasHeld = true;
+
+            CANMotorDispatcher.getInstance().hold(this);
+            motor.getTraffic().recordSkippedSetpoint();
+            return false;
+        }
+
+        // Any other decision supersedes a held setpoint, either sending something newer or keeping what the device has
+        this.hasHeld = false;
+
+        if (decision == Decision.SUPPRESS) {
+            motor.getTraffic().recordSkippedSetpoint();
+            return false;
+        }
+
+        if (RobotBase.isSimulation() && sim != null) {
+            this.sim.set(mode, value, arbFF);
+        }
+
+        if (decision == Decision.KEEP_ALIVE) {
+            motor.forceNextSet(); // the wrapper would drop an identical setpoint
+        }
+
+        motor.set(mode, value, arbFF);
+        sendPolicy.recordSent(mode, value, arbFF);
+
+        this.sentControlMode = mode;
+        this.sentSetpoint = value;
+        this.sentFF = arbFF;
+        return true;
+    }
+
+    /** Policy deciding which setpoints reach the motor controller, configure it with its {@code with} methods. */
+    public SetpointSendPolicy getSendPolicy() {
+        return sendPolicy;
+    }
+
+    public MotorControlMode getLastControlMode() {
+        return lastControlMode;
     }
 
     public void set(MotorControlMode mode, double value) {
@@ -314,55 +606,112 @@ public class CANMotor {
     }
 
     public boolean withinVelocityTolerance(double tol) {
-        if (this.lastSetpoint == 503.6328)
+        if (!this.hasSetpoint)
             return false;
 
         return Math.abs(this.getVelocity() - this.lastSetpoint) < tol;
     }
 
     public boolean withinTolerance(double tol) {
-        if (this.lastSetpoint == 503.6328)
+        if (!this.hasSetpoint)
             return false;
 
         return Math.abs(this.getPosition() - this.lastSetpoint) < tol;
     }
 
     public void update() {
-        if (RobotBase.isSimulation())
+        if (RobotBase.isSimulation() && sim != null && !simOwnedByCapture)
             this.sim.update();
     }
 
+    /** Creates a system identification capture of this motor, 1 kHz for up to 15 s, see {@link SysIdCapture}. */
+    public SysIdCapture sysIdCapture(String name) {
+        return new SysIdCapture(name, this);
+    }
+
+    /** While a {@link SysIdCapture} runs in simulation it integrates the plant itself, sample by sample. */
+    void setSimOwnedByCapture(boolean owned) {
+        this.simOwnedByCapture = owned;
+    }
+
     public void setIdleMode(boolean shouldCoast) {
         motor.setIdleMode(shouldCoast);
-        noResetAndNoUpdateConfig();
+        motor.applyMotorConfigAsync(false);
     }
 
     public void setInverted(boolean set) {
         motor.setMotorInverted(set);
     }
 
+    /**
+     * Puts this motor in hardware follow mode, it then mirrors the leader's output on its own and must not be
+     * {@code set} anymore. See {@link CANMotorGroup}.
+     * <p>
+     * On TalonFX and TalonSRX a later {@code set} takes the motor back out of follow mode. On REV follow mode is a
+     * config setting kept in the wrapper's config and sent (and persisted to flash) with every later apply, so the
+     * motor follows for good, ignoring {@code set} and surviving config changes and brownouts, until it is factory
+     * reset.
+     *
+     * @param leader Motor to follow, must be from the same vendor family (and on the same bus for TalonFX)
+     * @param opposeLeader If this motor spins opposite to the leader
+     */
+    public void follow(CANMotor leader, boolean opposeLeader) {
+        setBatched(false);
+        motor.follow(leader.motor, opposeLeader);
+
+        this.hasSetpoint = false;
+        this.lastControlMode = null;
+        this.hasHeld = false;
+        this.sentControlMode = null;
+        sendPolicy.reset();
+    }
+
     public void setEncoderPosition(double position) {
         motor.setEncoderPosition(position);
+
+        if (RobotBase.isSimulation() && sim != null)
+            sim.setEncoderPosition(position);
     }
     
     public double getPercent() {
         return motor.getMotorPercent();
     }
 
+    /** Voltage applied to the motor, duty cycle times the battery voltage measured by the roboRIO. */
+    public double getAppliedVoltage() {
+        if (RobotBase.isSimulation() && sim != null)
+            return sim.getAppliedVoltage();
+
+        return motor.getMotorPercent() * RobotController.getBatteryVoltage();
+    }
+
     public double getPosition() {
-        if (RobotBase.isSimulation())
+        if (RobotBase.isSimulation() && sim != null)
             return sim.getPosition();
         
         return motor.getMotorPosition();
     }
 
     public double getVelocity() {
-        if (RobotBase.isSimulation())
+        if (RobotBase.isSimulation() && sim != null)
             return sim.getVelocity();
         
         return motor.getMotorVelocity();
     }
 
+    /**
+     * Fills a caller owned holder with position, velocity and their measurement time, see {@link MotorSample}.
+     * Simulated values are exact at the time of the read.
+     */
+    public void sample(MotorSample out) {
+        if (RobotBase.isSimulation() && sim != null) {
+            out.set(sim.getPosition(), sim.getVelocity(), 0.0, 0.0);
+            return;
+        }
+
+        motor.sample(out);
+    }
+
     public double getOutputFromMode(MotorControlMode m) {
         switch (m) {
             case PercentOutput:
@@ -0,0 +1,132 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.ArrayList;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Collects setpoints from every {@link CANMotor} that has opted into batching and sends them
+ * all at once at the end of the robot loop, so a motor that is commanded several times in one
+ * loop only ever puts its final value on the bus. Also retries setpoints of any motor that its
+ * {@link SetpointSendPolicy} held back, so they are sent once their minimum resend interval passed, and
+ * re-evaluates the gravity feedforward that REV and TalonSRX arms add to their setpoint.
+ *
+ * @implNote {@link #flush()} must be called once per loop, after {@code CommandScheduler.run()}.
+ */
+public class CANMotorDispatcher {
+    private static final CANMotorDispatcher instance = new CANMotorDispatcher();
+
+    // Flushed in registration order so the write order on the bus is the same every loop
+    private final ArrayList<CANMotor> motors = new ArrayList<CANMotor>();
+    private final ArrayList<CANMotor> held = new ArrayList<CANMotor>();
+    private final ArrayList<CANMotor> gravity = new ArrayList<CANMotor>();
+
+    private int writesSent = 0;
+    private int writesSaved = 0;
+
+    private int lastWritesSent = 0;
+    private int lastWritesSaved = 0;
+
+    private long totalWritesSent = 0;
+    private long totalWritesSaved = 0;
+
+    private CANMotorDispatcher() {}
+
+    public static CANMotorDispatcher getInstance() {
+        return instance;
+    }
+
+    /** Adds a motor to the flush list. Registering the same motor twice does nothing. */
+    void register(CANMotor motor) {
+        if (!motors.contains(motor)) {
+            motors.add(motor);
+        }
+    }
+
+    /** Removes a motor from the flush list, any setpoint it has pending is sent right away. */
+    void unregister(CANMotor motor) {
+        if (motors.remove(motor) && motor.hasPendingSetpoint()) {
+            recordFlush(motor.flushPendingSetpoint());
+        }
+    }
+
+    /** Called by a {@link CANMotor} whose send policy held a setpoint back, it is retried every flush until sent. */
+    void hold(CANMotor motor) {
+        if (!held.contains(motor)) {
+            held.add(motor);
+        }
+    }
+
+    /** Called by a {@link CANMotor} whose wrapper adds kG cos(position) at set time, its setpoint is refreshed every flush. */
+    void refreshGravity(CANMotor motor) {
+        if (!gravity.contains(motor)) {
+            gravity.add(motor);
+        }
+    }
+
+    /** Called by a batched {@link CANMotor} when a pending setpoint is overwritten before being sent. */
+    void recordSaved() {
+        writesSaved++;
+    }
+
+    private void recordFlush(boolean sent) {
+        if (sent) {
+            writesSent++;
+        } else {
+            writesSaved++;
+        }
+    }
+
+    /** Sends the last requested setpoint of every batched motor and publishes this loop's counters. */
+    public void flush() {
+        for (int i = 0; i < motors.size(); i++) {
+            CANMotor motor = motors.get(i);
+
+            if (motor.hasPendingSetpoint()) {
+                recordFlush(motor.flushPendingSetpoint());
+            }
+        }
+
+        // After the batched motors, whose own writes may have just been held
+        for (int i = held.size() - 1; i >= 0; i--) {
+            CANMotor motor = held.get(i);
+
+            if (motor.hasHeldSetpoint() && motor.flushHeldSetpoint()) {
+                writesSent++;
+            }
+
+            if (!motor.hasHeldSetpoint()) {
+                held.remove(i);
+            }
+        }
+
+        // Last, so the arm angle is applied to whatever setpoint this loop ended on
+        for (int i = 0; i < gravity.size(); i++) {
+            gravity.get(i).refreshGravityFeedforward();
+        }
+
+        totalWritesSent += writesSent;
+        totalWritesSaved += writesSaved;
+
+        Logger.recordOutput("CANMotorDispatcher/WritesSent", writesSent);
+        Logger.recordOutput("CANMotorDispatcher/WritesSaved", writesSaved);
+        Logger.recordOutput("CANMotorDispatcher/TotalWritesSent", totalWritesSent);
+        Logger.recordOutput("CANMotorDispatcher/TotalWritesSaved", totalWritesSaved);
+
+        lastWritesSent = writesSent;
+        lastWritesSaved = writesSaved;
+
+        writesSent = 0;
+        writesSaved = 0;
+    }
+
+    /** Number of setpoints that reached the bus during the last flushed loop. */
+    public int getWritesSent() {
+        return lastWritesSent;
+    }
+
+    /** Number of set calls that were coalesced or deduplicated away during the last flushed loop. */
+    public int getWritesSaved() {
+        return lastWritesSaved;
+    }
+}
@@ -0,0 +1,133 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.ArrayList;
+
+import org.frogforce503.lib.drivers.BaseMotorWrapper.CANProfile;
+import org.frogforce503.lib.drivers.CANMotor.MotorControlMode;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Drives a multi-motor mechanism through its leader only, the other motors are put in hardware follow mode
+ * so each loop costs one setpoint frame instead of one per motor. Followers are dropped to {@link CANProfile#Idle},
+ * and their current and temperature are read round-robin, one motor per loop.
+ *
+ * <pre>
+ * CANMotorGroup elevator = new CANMotorGroup("Elevator", CANMotor.createTalonFX(10))
+ *     .addFollower(CANMotor.createTalonFX(11), true);
+ * ...
+ * elevator.set(MotorControlMode.Position, 12.0);
+ * elevator.periodic();
+ * </pre>
+ */
+public class CANMotorGroup {
+    private final CANMotor leader;
+    private final ArrayList<CANMotor> motors = new ArrayList<CANMotor>(); // leader first
+
+    private final String currentsKey;
+    private final String temperaturesKey;
+
+    private double[] currents = new double[] {0.0};
+    private double[] temperatures = new double[] {0.0};
+    private int nextRead = 0;
+
+    public CANMotorGroup(String name, CANMotor leader) {
+        this.leader = leader;
+        this.motors.add(leader);
+
+        this.currentsKey = "CANMotorGroup/" + name + "/Currents";
+        this.temperaturesKey = "CANMotorGroup/" + name + "/Temperatures";
+    }
+
+    /**
+     * Puts a motor in hardware follow mode behind the leader.
+     *
+     * @param follower Motor to follow the leader, must be from the same vendor family
+     * @param opposeLeader If the follower spins opposite to the leader
+     * @return This group, to chain followers
+     */
+    public CANMotorGroup addFollower(CANMotor follower, boolean opposeLeader) {
+        follower.follow(leader, opposeLeader);
+        follower.setCANProfile(CANProfile.Idle);
+
+        motors.add(follower);
+        currents = new double[motors.size()];
+        temperatures = new double[motors.size()];
+        return this;
+    }
+
+    public CANMotor getLeader() {
+        return leader;
+    }
+
+    /** Every motor of the group, leader first. */
+    public CANMotor[] getMotors() {
+        return motors.toArray(new CANMotor[0]);
+    }
+
+    public int size() {
+        return motors.size();
+    }
+
+    public void set(MotorControlMode mode, double value, double arbFF) {
+        leader.set(mode, value, arbFF);
+    }
+
+    public void set(MotorControlMode mode, double value) {
+        leader.set(mode, value);
+    }
+
+    public double getPosition() {
+        return leader.getPosition();
+    }
+
+    public double getVelocity() {
+        return leader.getVelocity();
+    }
+
+    /** Only changes the leader's status rates, followers stay at {@link CANProfile#Idle}. */
+    public void setCANProfile(CANProfile profile) {
+        leader.setCANProfile(profile);
+    }
+
+    /** Last read current of each motor, leader first. Follower values can be up to {@link #size()} loops old. */
+    public double[] getCurrents() {
+        return currents;
+    }
+
+    /** Last read temperature of each motor, leader first. Follower values can be up to {@link #size()} loops old. */
+    public double[] getTemperatures() {
+        return temperatures;
+    }
+
+    public double getTotalCurrent() {
+        double total = 0.0;
+
+        for (int i = 0; i < currents.length; i++) {
+            total += currents[i];
+        }
+
+        return total;
+    }
+
+    public double getMaxTemperature() {
+        double max = 0.0;
+
+        for (int i = 0; i < temperatures.length; i++) {
+            max = Math.max(max, temperatures[i]);
+        }
+
+        return max;
+    }
+
+    /** Reads the current and temperature of the next motor in the group and logs every motor's last values, call once per loop. */
+    public void periodic() {
+        CANMotor motor = motors.get(nextRead);
+
+        currents[nextRead] = motor.getOutputCurrent();
+        temperatures[nextRead] = motor.getTemperature();
+        nextRead = (nextRead + 1) % motors.size();
+
+        Logger.recordOutput(currentsKey, currents);
+        Logger.recordOutput(temperaturesKey, temperatures);
+    }
+}
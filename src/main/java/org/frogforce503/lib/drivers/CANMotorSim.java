@@ -0,0 +1,328 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.function.DoubleSupplier;
+
+import org.frogforce503.lib.drivers.CANMotor.CANMotorType;
+import org.frogforce503.lib.drivers.CANMotor.MotorControlMode;
+import org.frogforce503.lib.math.MathUtils;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * DC motor plant behind a simulated {@link CANMotor}. The mechanism (gearbox, gearing, moment of inertia) is
+ * integrated in fixed sub-steps up to the simulation clock, and the motor controller's closed loop is run at
+ * every sub-step with the gains given to {@code setPIDF}, in the same output units as the real device:
+ * duty cycle for Sparks, 1023-based output for TalonSRX and torque current (amps) for TalonFX. The F gain is a
+ * velocity feedforward ({@code kF * velocity}) except on TalonFX, where {@code setPIDF} stores it as the slot's
+ * static feedforward {@code kS}, applied as {@code kS * sign(velocity)} of the reference like the device does.
+ * <p>
+ * The clock defaults to the FPGA timestamp. When the robot runs without timing, set a clock that advances
+ * by one period per loop with {@link #setClock(DoubleSupplier)} and the simulation runs as fast as the loop does.
+ */
+public class CANMotorSim {
+    private static final double NOMINAL_VOLTAGE = 12.0;
+    private static final int SLOT_COUNT = 4;
+    private static final int MAX_SUB_STEPS = 1000; // bounds the catch-up after a long pause, e.g. a breakpoint
+
+    private static DoubleSupplier clock = Timer::getFPGATimestamp;
+
+    private final CANMotorType motorType;
+    private final DCMotor gearbox;
+    private final double gearing;
+    private final double moi;
+    private final double positionFactor;
+    private final double velocityFactor;
+
+    // REV and Phoenix 5 integrate and differentiate per 1 ms controller period, Phoenix 6 per second
+    private final double gainTimeBase;
+
+    private double subStepSeconds = 0.001;
+
+    private final double[] kP = new double[SLOT_COUNT];
+    private final double[] kI = new double[SLOT_COUNT];
+    private final double[] kD = new double[SLOT_COUNT];
+    private final double[] kF = new double[SLOT_COUNT];
+    private final double[] maxVelocity = new double[SLOT_COUNT];
+    private final double[] maxAcceleration = new double[SLOT_COUNT];
+    private int slot = 0;
+    private double currentLimit = Double.POSITIVE_INFINITY;
+
+    private MotorControlMode controlMode = MotorControlMode.PercentOutput;
+    private double demand = 0.0;
+    private double arbFF = 0.0;
+
+    // Mechanism state, in rotations and rotations per second
+    private double position = 0.0;
+    private double velocity = 0.0;
+    private double current = 0.0;
+    private double appliedVoltage = 0.0;
+
+    // Closed loop state, in device units
+    private double integral = 0.0;
+    private double lastError = 0.0;
+    private boolean hasLastError = false;
+    private double profilePosition = 0.0;
+    private double profileVelocity = 0.0;
+
+    private double lastUpdateTime = Double.NaN;
+
+    /**
+     * @param motorType Motor controller being simulated, decides the units of the closed loop output
+     * @param gearbox Motors driven by this controller, e.g. {@code DCMotor.getKrakenX60Foc(1)}
+     * @param gearing Motor rotations per mechanism rotation
+     * @param moi Moment of inertia of the mechanism in kg m^2
+     * @param positionFactor Device position units per mechanism rotation (the position conversion factor)
+     * @param velocityFactor Device velocity units per mechanism rotation per second (60 for RPM)
+     */
+    public CANMotorSim(CANMotorType motorType, DCMotor gearbox, double gearing, double moi, double positionFactor, double velocityFactor) {
+        this.motorType = motorType;
+        this.gearbox = gearbox;
+        this.gearing = gearing;
+        this.moi = moi;
+        this.positionFactor = positionFactor;
+        this.velocityFactor = velocityFactor;
+        this.gainTimeBase = motorType == CANMotorType.TALON_FX ? 1.0 : 0.001;
+    }
+
+    /** Sets the clock every simulated motor integrates up to, in seconds. */
+    public static void setClock(DoubleSupplier clock) {
+        CANMotorSim.clock = clock;
+    }
+
+    /** Current time on the clock every simulated motor integrates up to. */
+    public static double getClockTime() {
+        return clock.getAsDouble();
+    }
+
+    /** Sets the integration step, smaller is more accurate for stiff loops but costs more per loop. */
+    public void setSubStep(double seconds) {
+        this.subStepSeconds = seconds;
+    }
+
+    public void setGains(int slot, double p, double i, double d, double f) {
+        kP[slot] = p;
+        kI[slot] = i;
+        kD[slot] = d;
+        kF[slot] = f;
+    }
+
+    public void setProfileConstraints(int slot, double maxVelocity, double maxAcceleration) {
+        this.maxVelocity[slot] = maxVelocity;
+        this.maxAcceleration[slot] = maxAcceleration;
+    }
+
+    /** Per motor current limit in amps, the plant backs its voltage off to hold it like the controller would. */
+    public void setCurrentLimit(double amps) {
+        this.currentLimit = amps;
+    }
+
+    public void selectSlot(int slot) {
+        this.slot = slot;
+    }
+
+    public void set(MotorControlMode controlMode, double value, double arbFF) {
+        if (controlMode != this.controlMode) {
+            integral = 0.0;
+            hasLastError = false;
+
+            // Profiles start from where the mechanism is
+            profilePosition = getPosition();
+            profileVelocity = getVelocity();
+        }
+
+        this.controlMode = controlMode;
+        this.demand = value;
+        this.arbFF = arbFF;
+    }
+
+    /** Integrates the mechanism up to the current simulation time. */
+    public void update() {
+        updateTo(clock.getAsDouble());
+    }
+
+    /**
+     * Integrates the mechanism up to a time on the simulation clock, for callers that need the state between loops
+     * (see {@link SysIdCapture}). A later {@link #update()} only integrates what is left of the loop.
+     */
+    public void updateTo(double now) {
+        if (Double.isNaN(lastUpdateTime)) {
+            lastUpdateTime = now;
+            return;
+        }
+
+        double elapsed = now - lastUpdateTime;
+        lastUpdateTime = now;
+
+        if (elapsed <= 0.0)
+            return;
+
+        int steps = Math.min((int) Math.ceil(elapsed / subStepSeconds), MAX_SUB_STEPS);
+        double dt = elapsed / steps;
+
+        for (int i = 0; i < steps; i++) {
+            step(dt);
+        }
+    }
+
+    private void step(double dt) {
+        switch (controlMode) {
+            case PercentOutput:
+                applyVoltage(MathUtils.clamp(demand, -1.0, 1.0) * NOMINAL_VOLTAGE, dt);
+                break;
+            case Voltage:
+                applyVoltage(demand, dt);
+                break;
+            case Position:
+                applyClosedLoop(closedLoop(demand, getPosition(), 0.0, dt), dt);
+                break;
+            case Velocity:
+                applyClosedLoop(closedLoop(demand, getVelocity(), feedforward(demand), dt), dt);
+                break;
+            case ProfiledPosition:
+                advancePositionProfile(dt);
+                applyClosedLoop(closedLoop(profilePosition, getPosition(), feedforward(profileVelocity), dt), dt);
+                break;
+            case ProfiledVelocity:
+                advanceVelocityProfile(dt);
+                applyClosedLoop(closedLoop(profileVelocity, getVelocity(), feedforward(profileVelocity), dt), dt);
+                break;
+        }
+    }
+
+    /** Feedforward of the F gain for a reference velocity, static friction on TalonFX (kS), proportional elsewhere. */
+    private double feedforward(double referenceVelocity) {
+        if (motorType == CANMotorType.TALON_FX)
+            return kF[slot] * Math.signum(referenceVelocity);
+
+        return kF[slot] * referenceVelocity;
+    }
+
+    private double closedLoop(double setpoint, double measurement, double feedforward, double dt) {
+        double error = setpoint - measurement;
+
+        integral += error * dt / gainTimeBase;
+        double derivative = hasLastError ? (error - lastError) * gainTimeBase / dt : 0.0;
+
+        lastError = error;
+        hasLastError = true;
+
+        return kP[slot] * error + kI[slot] * integral + kD[slot] * derivative + feedforward;
+    }
+
+    private void applyClosedLoop(double output, double dt) {
+        switch (motorType) {
+            case TALON_FX:
+                applyTorqueCurrent(output + arbFF, dt); // arbitrary feedforward is in amps with TorqueCurrentFOC
+                break;
+            case TALON_SRX:
+                applyVoltage((MathUtils.clamp(output / 1023.0, -1.0, 1.0) + arbFF) * NOMINAL_VOLTAGE, dt); // and in percent here
+                break;
+            default:
+                applyVoltage(MathUtils.clamp(output, -1.0, 1.0) * NOMINAL_VOLTAGE + arbFF, dt); // and in volts on a Spark
+                break;
+        }
+    }
+
+    private void applyVoltage(double volts, double dt) {
+        appliedVoltage = MathUtils.clamp(volts, -NOMINAL_VOLTAGE, NOMINAL_VOLTAGE);
+        current = gearbox.getCurrent(getMotorSpeed(), appliedVoltage);
+
+        if (Math.abs(current) > currentLimit * gearbox.numMotors) {
+            applyTorqueCurrent(current, dt);
+            return;
+        }
+
+        accelerate(current, dt);
+    }
+
+    private void applyTorqueCurrent(double amps, double dt) {
+        double limit = currentLimit * gearbox.numMotors;
+        amps = MathUtils.clamp(amps, -limit, limit);
+
+        // The controller can only push as much current as the supply voltage allows against back EMF
+        double backEMF = getMotorSpeed() / gearbox.KvRadPerSecPerVolt;
+        current = MathUtils.clamp(amps, (-NOMINAL_VOLTAGE - backEMF) / gearbox.rOhms, (NOMINAL_VOLTAGE - backEMF) / gearbox.rOhms);
+        appliedVoltage = current * gearbox.rOhms + backEMF;
+        accelerate(current, dt);
+    }
+
+    private void accelerate(double amps, double dt) {
+        double acceleration = gearbox.getTorque(amps) * gearing / moi / (2 * Math.PI); // rotations per second^2
+
+        // Semi-implicit Euler, stable for the stiff position loops
+        velocity += acceleration * dt;
+        position += velocity * dt;
+    }
+
+    private void advancePositionProfile(double dt) {
+        double maxVel = maxVelocity[slot];
+        double maxAcc = maxAcceleration[slot];
+
+        if (maxVel <= 0.0 || maxAcc <= 0.0) {
+            profilePosition = demand;
+            profileVelocity = 0.0;
+            return;
+        }
+
+        // Velocity is in velocity units, positions in position units
+        double unitsPerVelocity = positionFactor / velocityFactor;
+        double remaining = demand - profilePosition;
+        double direction = Math.signum(remaining);
+        double stoppingDistance = profileVelocity * profileVelocity / (2 * maxAcc) * unitsPerVelocity;
+
+        if (Math.signum(profileVelocity) == direction && Math.abs(remaining) <= stoppingDistance) {
+            profileVelocity -= direction * Math.min(maxAcc * dt, Math.abs(profileVelocity));
+        } else {
+            profileVelocity = MathUtils.clamp(profileVelocity + direction * maxAcc * dt, -maxVel, maxVel);
+        }
+
+        double moved = profileVelocity * unitsPerVelocity * dt;
+
+        if (Math.abs(moved) >= Math.abs(remaining) && Math.signum(moved) == direction) {
+            profilePosition = demand;
+            profileVelocity = 0.0;
+        } else {
+            profilePosition += moved;
+        }
+    }
+
+    private void advanceVelocityProfile(double dt) {
+        double maxAcc = maxAcceleration[slot];
+
+        if (maxAcc <= 0.0) {
+            profileVelocity = demand;
+            return;
+        }
+
+        double maxChange = maxAcc * dt;
+        profileVelocity += MathUtils.clamp(demand - profileVelocity, -maxChange, maxChange);
+    }
+
+    private double getMotorSpeed() {
+        return velocity * 2 * Math.PI * gearing; // radians per second at the motor
+    }
+
+    /** Position in device units. */
+    public double getPosition() {
+        return position * positionFactor;
+    }
+
+    /** Velocity in device units. */
+    public double getVelocity() {
+        return velocity * velocityFactor;
+    }
+
+    /** Stator current drawn by the gearbox, in amps. */
+    public double getCurrent() {
+        return Math.abs(current);
+    }
+
+    public double getAppliedVoltage() {
+        return appliedVoltage;
+    }
+
+    public void setEncoderPosition(double position) {
+        this.position = position / positionFactor;
+    }
+}
@@ -0,0 +1,134 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Counts the CAN traffic a single motor controller wrapper causes: setpoints sent and skipped by dedup,
+ * config applies and read-backs, flash writes and reads per signal. Also holds the device's expected periodic frame
+ * rates so {@link CANTrafficMonitor} can estimate the utilization of each bus.
+ * <p>
+ * Setpoints, skips and reads are logged per loop and counted on the main loop. Config applies, config reads
+ * and flash writes are logged as totals since boot and may be counted from the {@link MotorConfigWorker} thread.
+ */
+public class CANTrafficCounter {
+    public enum Read {
+        POSITION,
+        VELOCITY,
+        OUTPUT,
+        CURRENT,
+        TEMPERATURE,
+        BUS_VOLTAGE,
+        FAULTS
+    }
+
+    private static final Read[] READS = Read.values();
+
+    final String bus;
+
+    private final String setpointsKey;
+    private final String skippedKey;
+    private final String configAppliesKey;
+    private final String configReadsKey;
+    private final String flashBurnsKey;
+    private final String framesPerSecondKey;
+    private final String[] readKeys = new String[READS.length];
+
+    private long setpoints = 0;
+    private long skipped = 0;
+    private final long[] reads = new long[READS.length];
+
+    private final AtomicLong configApplies = new AtomicLong();
+    private final AtomicLong configReads = new AtomicLong();
+    private final AtomicLong flashBurns = new AtomicLong();
+
+    private volatile double statusFramesPerSecond = 0.0;
+    private volatile double controlFramesPerSecond = 0.0;
+
+    /**
+     * @param bus Name of the CAN bus, {@code ""} for the roboRIO bus
+     * @param device Name of the device under the bus, e.g. {@code TalonFX-12}
+     */
+    public CANTrafficCounter(String bus, String device) {
+        this.bus = bus.equals("") ? "rio" : bus;
+
+        String prefix = "CANTraffic/" + this.bus + "/" + device + "/";
+        this.setpointsKey = prefix + "Setpoints";
+        this.skippedKey = prefix + "SetpointsSkipped";
+        this.configAppliesKey = prefix + "ConfigApplies";
+        this.configReadsKey = prefix + "ConfigReads";
+        this.flashBurnsKey = prefix + "FlashBurns";
+        this.framesPerSecondKey = prefix + "StatusFramesPerSecond";
+
+        for (int i = 0; i < READS.length; i++) {
+            readKeys[i] = prefix + "Reads/" + READS[i].name();
+        }
+
+        CANTrafficMonitor.getInstance().register(this);
+    }
+
+    public void recordSetpoint() {
+        setpoints++;
+    }
+
+    /** A set call that dedup kept off the bus. */
+    public void recordSkippedSetpoint() {
+        skipped++;
+    }
+
+    public void recordRead(Read signal) {
+        reads[signal.ordinal()]++;
+    }
+
+    public void recordConfigApply() {
+        configApplies.incrementAndGet();
+    }
+
+    /** A full configuration read back from the device, e.g. to verify it. */
+    public void recordConfigRead() {
+        configReads.incrementAndGet();
+    }
+
+    public void recordFlashBurn() {
+        flashBurns.incrementAndGet();
+    }
+
+    /** Status frames the device broadcasts per second with its current {@code CANProfile}. */
+    public void setStatusFrameRate(double framesPerSecond) {
+        this.statusFramesPerSecond = framesPerSecond;
+    }
+
+    /**
+     * Control frames the vendor library resends per second on its own, whether or not the setpoint changed.
+     * Zero for devices that only send a frame when the setpoint changes.
+     */
+    public void setControlFrameRate(double framesPerSecond) {
+        this.controlFramesPerSecond = framesPerSecond;
+    }
+
+    /**
+     * Logs this loop's counts, resets them and returns the frames the device put on the bus during the loop.
+     * Config traffic is logged but not part of the estimate, its frame count depends on the vendor.
+     */
+    double publish(double loopSeconds) {
+        Logger.recordOutput(setpointsKey, setpoints);
+        Logger.recordOutput(skippedKey, skipped);
+        Logger.recordOutput(configAppliesKey, configApplies.get());
+        Logger.recordOutput(configReadsKey, configReads.get());
+        Logger.recordOutput(flashBurnsKey, flashBurns.get());
+        Logger.recordOutput(framesPerSecondKey, statusFramesPerSecond);
+
+        for (int i = 0; i < reads.length; i++) {
+            Logger.recordOutput(readKeys[i], reads[i]);
+            reads[i] = 0;
+        }
+
+        double controlFrames = controlFramesPerSecond > 0.0 ? controlFramesPerSecond * loopSeconds : setpoints;
+        double frames = statusFramesPerSecond * loopSeconds + controlFrames;
+
+        setpoints = 0;
+        skipped = 0;
+        return frames;
+    }
+}
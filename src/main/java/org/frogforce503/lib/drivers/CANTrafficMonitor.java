@@ -0,0 +1,103 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.ArrayList;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Publishes the {@link CANTrafficCounter} of every motor controller once per loop under
+ * {@code CANTraffic/<bus>/<device>/...}, and an estimated utilization per bus under
+ * {@code CANTraffic/<bus>/EstimatedUtilization}. The roboRIO's own measurement is logged next to it
+ * under {@code CANTraffic/rio/MeasuredUtilization} to keep the estimate honest.
+ *
+ * @implNote {@link #periodic()} must be called once per loop, after every setpoint was sent.
+ */
+public class CANTrafficMonitor {
+    private static final CANTrafficMonitor instance = new CANTrafficMonitor();
+
+    // Extended frame with 8 data bytes, without stuffing bits
+    private static final double FRAME_BITS = 131.0;
+    // Nominal bitrate, CAN FD buses (CANivore) switch to a faster data phase so this overestimates them
+    private static final double BUS_BITRATE = 1_000_000.0;
+
+    private final ArrayList<CANTrafficCounter> counterList = new ArrayList<CANTrafficCounter>();
+    private final ArrayList<String> busList = new ArrayList<String>();
+
+    private volatile CANTrafficCounter[] counters = new CANTrafficCounter[0];
+    private volatile int[] counterBuses = new int[0];
+    private volatile String[] utilizationKeys = new String[0];
+    private double[] busFrames = new double[0];
+
+    private final CANStatus rioStatus = new CANStatus();
+    private double lastTimestamp = Double.NaN;
+
+    private CANTrafficMonitor() {}
+
+    public static CANTrafficMonitor getInstance() {
+        return instance;
+    }
+
+    /** Called by every counter on construction, thread safe so devices can be constructed by {@link DeviceBringup}. */
+    synchronized void register(CANTrafficCounter counter) {
+        int bus = busList.indexOf(counter.bus);
+
+        if (bus == -1) {
+            bus = busList.size();
+            busList.add(counter.bus);
+
+            String[] keys = new String[busList.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = "CANTraffic/" + busList.get(i) + "/EstimatedUtilization";
+            }
+            utilizationKeys = keys;
+        }
+
+        counterList.add(counter);
+
+        int[] buses = new int[counterList.size()];
+        System.arraycopy(counterBuses, 0, buses, 0, counterBuses.length);
+        buses[buses.length - 1] = bus;
+
+        counterBuses = buses;
+        counters = counterList.toArray(new CANTrafficCounter[0]);
+    }
+
+    /** Logs every device's traffic for this loop and the estimated utilization of each bus. */
+    public void periodic() {
+        double now = Timer.getFPGATimestamp();
+        double loopSeconds = Double.isNaN(lastTimestamp) ? 0.02 : now - lastTimestamp;
+        lastTimestamp = now;
+
+        CANTrafficCounter[] currentCounters = counters;
+        int[] currentBuses = counterBuses;
+        String[] currentKeys = utilizationKeys;
+
+        if (busFrames.length != currentKeys.length) {
+            busFrames = new double[currentKeys.length];
+        }
+
+        for (int i = 0; i < busFrames.length; i++) {
+            busFrames[i] = 0.0;
+        }
+
+        for (int i = 0; i < currentCounters.length; i++) {
+            busFrames[currentBuses[i]] += currentCounters[i].publish(loopSeconds);
+        }
+
+        if (loopSeconds > 0.0) {
+            for (int i = 0; i < currentKeys.length; i++) {
+                Logger.recordOutput(currentKeys[i], busFrames[i] * FRAME_BITS / (BUS_BITRATE * loopSeconds));
+            }
+        }
+
+        RobotController.getCANStatus(rioStatus);
+        Logger.recordOutput("CANTraffic/rio/MeasuredUtilization", rioStatus.percentBusUtilization);
+        Logger.recordOutput("CANTraffic/rio/TxFullCount", rioStatus.txFullCount);
+        Logger.recordOutput("CANTraffic/rio/ReceiveErrorCount", rioStatus.receiveErrorCount);
+        Logger.recordOutput("CANTraffic/rio/TransmitErrorCount", rioStatus.transmitErrorCount);
+    }
+}
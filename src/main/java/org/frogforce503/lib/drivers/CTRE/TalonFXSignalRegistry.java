@@ -0,0 +1,79 @@
+package org.frogforce503.lib.drivers.CTRE;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.littletonrobotics.junction.Logger;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+
+/**
+ * Holds the status signals of every {@link TalonFXWrapper}, grouped by CAN bus, so they can all be
+ * refreshed with a single {@link BaseStatusSignal#refreshAll} call per bus per loop. Every value read
+ * afterwards comes from the same synchronized snapshot instead of a separate JNI call per getter.
+ *
+ * @implNote {@link #refreshAll()} must be called once per loop, before anything reads motor state.
+ * Registration is thread safe so devices can be constructed by {@code DeviceBringup}.
+ */
+public class TalonFXSignalRegistry {
+    private static final TalonFXSignalRegistry instance = new TalonFXSignalRegistry();
+
+    private final HashMap<String, BusGroup> buses = new HashMap<String, BusGroup>();
+    private volatile BusGroup[] busArray = new BusGroup[0];
+
+    private static class BusGroup {
+        private final String okKey;
+        private final ArrayList<BaseStatusSignal> signals = new ArrayList<BaseStatusSignal>();
+        private volatile BaseStatusSignal[] signalArray = new BaseStatusSignal[0];
+        private StatusCode lastStatus = StatusCode.OK;
+
+        private BusGroup(String canBus) {
+            this.okKey = "TalonFXSignals/" + (canBus.equals("") ? "rio" : canBus) + "/OK";
+        }
+    }
+
+    private TalonFXSignalRegistry() {}
+
+    public static TalonFXSignalRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Adds signals to the refresh group of the given bus.
+     *
+     * @param canBus Name of the CAN bus the device lives on, {@code ""} for the roboRIO bus
+     * @param signals Signals to refresh every loop
+     */
+    public synchronized void register(String canBus, BaseStatusSignal... signals) {
+        BusGroup group = buses.get(canBus);
+
+        if (group == null) {
+            group = new BusGroup(canBus);
+            buses.put(canBus, group);
+            busArray = buses.values().toArray(new BusGroup[0]);
+        }
+
+        for (BaseStatusSignal signal : signals) {
+            group.signals.add(signal);
+        }
+
+        group.signalArray = group.signals.toArray(new BaseStatusSignal[0]);
+    }
+
+    /** Refreshes every registered signal, one blocking-free JNI call per bus. */
+    public void refreshAll() {
+        for (int i = 0; i < busArray.length; i++) {
+            BusGroup group = busArray[i];
+
+            group.lastStatus = BaseStatusSignal.refreshAll(group.signalArray);
+            Logger.recordOutput(group.okKey, group.lastStatus.isOK());
+        }
+    }
+
+    /** Result of the last refresh of the given bus, {@link StatusCode#OK} if the bus has never been refreshed. */
+    public synchronized StatusCode getLastStatus(String canBus) {
+        BusGroup group = buses.get(canBus);
+        return group == null ? StatusCode.OK : group.lastStatus;
+    }
+}
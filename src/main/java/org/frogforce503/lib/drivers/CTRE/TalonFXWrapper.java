@@ -1,20 +1,49 @@
 package org.frogforce503.lib.drivers.CTRE;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 import org.frogforce503.lib.drivers.BaseMotorWrapper;
+import org.frogforce503.lib.drivers.CANTrafficCounter;
+import org.frogforce503.lib.drivers.CANTrafficCounter.Read;
 import org.frogforce503.lib.drivers.CANMotor.MotorControlMode;
-import org.frogforce503.lib.drivers.CTRE.TalonSRXWrapper.CANProfile;
+import org.frogforce503.lib.drivers.MotorConfigCache;
+import org.frogforce503.lib.drivers.MotorConfigMirror;
+import org.frogforce503.lib.drivers.MotorSample;
+import org.frogforce503.lib.drivers.MotorConfigWorker;
 import org.frogforce503.lib.math.MathUtils;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix6.configs.SlotConfigs;
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.FeedbackConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.Slot1Configs;
+import com.ctre.phoenix6.configs.Slot2Configs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.ControlRequest;
 import com.ctre.phoenix6.controls.DutyCycleOut;
-import com.ctre.phoenix6.controls.MotionMagicExpoTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.Follower;
+import com.ctre.phoenix6.controls.MotionMagicTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.MotionMagicVelocityTorqueCurrentFOC;
 import com.ctre.phoenix6.controls.PositionTorqueCurrentFOC;
 import com.ctre.phoenix6.controls.VelocityTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
 import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Temperature;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.Timer;
 
 /**
  * This class is a thin wrapper around the CANTalon that reduces CAN bus / CPU
@@ -23,59 +52,127 @@ import com.ctre.phoenix6.signals.InvertedValue;
  */
 public class TalonFXWrapper extends TalonFX implements BaseMotorWrapper {
     protected double mLastSet = Double.NaN;
-    protected ControlMode mLastControlMode = null;
+    protected double mLastFF = Double.NaN;
+    protected MotorControlMode mLastControlMode = null;
+    protected int mSlotID = 0;
     protected CANProfile mLastCANProfile = CANProfile.Default;
+    protected double mFeedbackRateFloor = 0.0;
 
     TalonFXConfiguration config = new TalonFXConfiguration();
+    private final MotorConfigMirror mirror = new MotorConfigMirror();
+
+    private final String configCacheKey;
+
+    private final String name;
+    private final CANTrafficCounter traffic;
+
+    // One request per control mode, updated in place so set() never allocates
+    private final DutyCycleOut dutyCycleRequest = new DutyCycleOut(0);
+    private final VelocityTorqueCurrentFOC velocityRequest = new VelocityTorqueCurrentFOC(0);
+    private final MotionMagicTorqueCurrentFOC motionMagicRequest = new MotionMagicTorqueCurrentFOC(0);
+    private final MotionMagicVelocityTorqueCurrentFOC motionMagicVelocityRequest = new MotionMagicVelocityTorqueCurrentFOC(0);
+    private final VoltageOut voltageRequest = new VoltageOut(0);
+    private final PositionTorqueCurrentFOC positionRequest = new PositionTorqueCurrentFOC(0);
+
+    // Refreshed together once per loop by TalonFXSignalRegistry, getters never call into JNI themselves
+    private final StatusSignal<Angle> positionSignal;
+    private final StatusSignal<AngularVelocity> velocitySignal;
+    private final StatusSignal<Current> torqueCurrentSignal;
+    private final StatusSignal<Double> dutyCycleSignal;
+
+    // Slow changing, refreshed on demand (see SignalPoller) instead of every loop
+    private final StatusSignal<Voltage> supplyVoltageSignal;
+    private final StatusSignal<Temperature> deviceTempSignal;
+    private final StatusSignal<Integer> faultFieldSignal;
 
     public TalonFXWrapper(int deviceNumber) {
-        super(deviceNumber);
-        super.getConfigurator().apply(config);
+        this(deviceNumber, "");
     }
 
     public TalonFXWrapper(int deviceNumber, String canBus) {
         super(deviceNumber, canBus);
-        super.getConfigurator().apply(config);
+
+        // Configs are retained on the device, they are only pushed by applyMotorConfig / applyMotorConfigIfChanged
+        configCacheKey = "TalonFX-" + (canBus.equals("") ? "rio" : canBus) + "-" + deviceNumber;
+
+        name = "TalonFX-" + deviceNumber;
+        traffic = new CANTrafficCounter(canBus, name);
+        traffic.setControlFrameRate(100); // Phoenix resends the active control request at 100 Hz
+        traffic.setStatusFrameRate(statusFramesPerSecond(100, 50, 4));
+
+        positionSignal = super.getPosition();
+        velocitySignal = super.getVelocity();
+        torqueCurrentSignal = super.getTorqueCurrent();
+        deviceTempSignal = super.getDeviceTemp();
+        dutyCycleSignal = super.getDutyCycle();
+        supplyVoltageSignal = super.getSupplyVoltage();
+        faultFieldSignal = super.getFaultField();
+
+        TalonFXSignalRegistry.getInstance().register(
+            canBus,
+            positionSignal,
+            velocitySignal,
+            torqueCurrentSignal,
+            dutyCycleSignal
+        );
     }
 
     @Override
-    public void set(MotorControlMode CANMotorMode, double value, double arbFF) {
-        ControlMode mode = BaseMotorWrapper.ctreModes.get(CANMotorMode);
-
-        if (value != mLastSet || mode != mLastControlMode) {
+    public void set(MotorControlMode mode, double value, double arbFF) {
+        if (value != mLastSet || mode != mLastControlMode || arbFF != mLastFF) {
             mLastSet = value;
             mLastControlMode = mode;
+            mLastFF = arbFF;
 
             ControlRequest request;
 
+            // Closed loop requests run on the selected slot, gravity comes from the slot's kG on the controller
             switch (mode) {
-                case PercentOutput:
-                    request = new DutyCycleOut(value);
+                case Voltage:
+                    request = voltageRequest.withOutput(value);
+                    break;
+                case Position:
+                    request = positionRequest.withPosition(value).withFeedForward(arbFF).withSlot(mSlotID); // requires Phoenix Pro
                     break;
                 case Velocity:
-                    request = new VelocityTorqueCurrentFOC(value).withFeedForward(arbFF); // requires Phoenix Pro
+                    request = velocityRequest.withVelocity(value).withFeedForward(arbFF).withSlot(mSlotID); // requires Phoenix Pro
                     break;
-                case MotionMagic:
-                    request = new MotionMagicExpoTorqueCurrentFOC(value).withFeedForward(arbFF); // requires Phoenix Pro
+                case ProfiledPosition:
+                    request = motionMagicRequest.withPosition(value).withFeedForward(arbFF).withSlot(mSlotID); // requires Phoenix Pro
                     break;
-                case Position:
-                    request = new PositionTorqueCurrentFOC(value).withFeedForward(arbFF); // requires Phoenix Pro
+                case ProfiledVelocity:
+                    request = motionMagicVelocityRequest.withVelocity(value).withFeedForward(arbFF).withSlot(mSlotID); // requires Phoenix Pro
                     break;
                 default:
                     // makes sure if controlmode is anything other than listed above, runs Duty Cycle ranging from -1.0 to 1.0
-                    request = new DutyCycleOut(MathUtils.clamp(-1.0, 1.0, value));
+                    request = dutyCycleRequest.withOutput(MathUtils.clamp(value, -1.0, 1.0));
                     break;
             }
 
             super.setControl(request);
+            traffic.recordSetpoint();
+        } else {
+            traffic.recordSkippedSetpoint();
         }
     }
 
+    @Override
+    public void forceNextSet() {
+        mLastSet = Double.NaN;
+    }
+
     /**
      * VERY IMPORTANT, MUST BE DONE AFTER MOTOR INITALIZATION
      */
-    public void applyConfig() {
-        super.getConfigurator().apply(config);
+    public StatusCode applyConfig() {
+        StatusCode status = super.getConfigurator().apply(config);
+        recordConfigWrite();
+
+        if (status.isOK()) {
+            markApplied(config);
+        }
+
+        return status;
     }
 
     @Override
@@ -89,28 +186,192 @@ public class TalonFXWrapper extends TalonFX implements BaseMotorWrapper {
         applyConfig();
     }
 
+    /**
+     * Queues a snapshot of the current configuration on the {@link MotorConfigWorker} instead of blocking the caller.
+     * Phoenix 6 devices always retain their configs, so {@code shouldBurnConfig} has no extra effect.
+     */
+    @Override
+    public CompletableFuture<StatusCode> applyMotorConfigAsync(boolean shouldBurnConfig) {
+        TalonFXConfiguration snapshot = new TalonFXConfiguration();
+        snapshot.deserialize(config.serialize());
+
+        return MotorConfigWorker.getInstance().submit(this, "config", () -> {
+            StatusCode status = super.getConfigurator().apply(snapshot);
+            recordConfigWrite();
+
+            if (status.isOK()) {
+                markApplied(snapshot);
+            }
+
+            return status;
+        });
+    }
+
+    /**
+     * Applies the configuration only if it differs from the last one applied to this device. When only the
+     * slot, motion magic, current limit, motor output or feedback groups changed, just those groups are pushed.
+     *
+     * @return If the device now holds the configuration (unchanged, or pushed successfully)
+     */
+    @Override
+    public boolean applyMotorConfigIfChanged() {
+        MotorConfigCache cache = MotorConfigCache.getInstance();
+
+        if (!cache.hasChanged(configCacheKey, config.serialize())) {
+            cache.recordSkipped(configCacheKey);
+            return true;
+        }
+
+        if (cache.hasChanged(configCacheKey + ".Rest", serializeRest(config))) {
+            // Something outside the individually pushed groups changed, push everything
+            cache.recordPushed(configCacheKey);
+            return applyConfig().isOK();
+        }
+
+        StringBuilder pushedGroups = new StringBuilder();
+        StatusCode status = StatusCode.OK;
+
+        status = pushGroupIfChanged("Slot0", config.Slot0.serialize(), () -> getConfigurator().apply(config.Slot0), status, pushedGroups);
+        status = pushGroupIfChanged("Slot1", config.Slot1.serialize(), () -> getConfigurator().apply(config.Slot1), status, pushedGroups);
+        status = pushGroupIfChanged("Slot2", config.Slot2.serialize(), () -> getConfigurator().apply(config.Slot2), status, pushedGroups);
+        status = pushGroupIfChanged("MotionMagic", config.MotionMagic.serialize(), () -> getConfigurator().apply(config.MotionMagic), status, pushedGroups);
+        status = pushGroupIfChanged("CurrentLimits", config.CurrentLimits.serialize(), () -> getConfigurator().apply(config.CurrentLimits), status, pushedGroups);
+        status = pushGroupIfChanged("MotorOutput", config.MotorOutput.serialize(), () -> getConfigurator().apply(config.MotorOutput), status, pushedGroups);
+        status = pushGroupIfChanged("Feedback", config.Feedback.serialize(), () -> getConfigurator().apply(config.Feedback), status, pushedGroups);
+
+        if (status.isOK()) {
+            markApplied(config);
+        }
+
+        cache.recordPushed(configCacheKey + " (" + pushedGroups.toString().trim() + ")");
+        return status.isOK();
+    }
+
+    private StatusCode pushGroupIfChanged(String group, String serialized, Supplier<StatusCode> apply, StatusCode worst, StringBuilder pushedGroups) {
+        if (!MotorConfigCache.getInstance().hasChanged(configCacheKey + "." + group, serialized))
+            return worst;
+
+        pushedGroups.append(group).append(' ');
+
+        StatusCode status = apply.get();
+        recordConfigWrite();
+        return worst.isOK() ? status : worst;
+    }
+
+    /** Phoenix 6 devices store every config they receive, so each apply is also a flash write. */
+    private void recordConfigWrite() {
+        traffic.recordConfigApply();
+        traffic.recordFlashBurn();
+    }
+
+    private void markApplied(TalonFXConfiguration applied) {
+        MotorConfigCache cache = MotorConfigCache.getInstance();
+
+        cache.markApplied(configCacheKey, applied.serialize());
+        cache.markApplied(configCacheKey + ".Rest", serializeRest(applied));
+        cache.markApplied(configCacheKey + ".Slot0", applied.Slot0.serialize());
+        cache.markApplied(configCacheKey + ".Slot1", applied.Slot1.serialize());
+        cache.markApplied(configCacheKey + ".Slot2", applied.Slot2.serialize());
+        cache.markApplied(configCacheKey + ".MotionMagic", applied.MotionMagic.serialize());
+        cache.markApplied(configCacheKey + ".CurrentLimits", applied.CurrentLimits.serialize());
+        cache.markApplied(configCacheKey + ".MotorOutput", applied.MotorOutput.serialize());
+        cache.markApplied(configCacheKey + ".Feedback", applied.Feedback.serialize());
+    }
+
+    /** Serializes everything except the groups that {@link #applyMotorConfigIfChanged()} can push on their own. */
+    private static String serializeRest(TalonFXConfiguration source) {
+        TalonFXConfiguration rest = new TalonFXConfiguration();
+        rest.deserialize(source.serialize());
+
+        rest.Slot0 = new Slot0Configs();
+        rest.Slot1 = new Slot1Configs();
+        rest.Slot2 = new Slot2Configs();
+        rest.MotionMagic = new MotionMagicConfigs();
+        rest.CurrentLimits = new CurrentLimitsConfigs();
+        rest.MotorOutput = new MotorOutputConfigs();
+        rest.Feedback = new FeedbackConfigs();
+
+        return rest.serialize();
+    }
+
+    /**
+     * Motion Magic constraints are shared by every slot on Phoenix 6, and there is no on-controller allowed error,
+     * so {@code slotID} and {@code tolerance} are ignored.
+     */
     @Override
     public void configureProfiled(int slotID, double maxVel, double maxAcc, double tolerance) {
         config.MotionMagic
             .withMotionMagicCruiseVelocity(maxVel)
             .withMotionMagicAcceleration(maxAcc);
+
+        for (int slot = 0; slot < MotorConfigMirror.SLOT_COUNT; slot++) {
+            mirror.setProfile(slot, maxVel, maxAcc, 0.0);
+        }
+    }
+
+    /** Sets the slot's on-controller gravity feedforward, in amps like the torque current requests. */
+    @Override
+    public void configureGravity(int slotID, GravityType type, double kG) {
+        GravityTypeValue gravityType = type == GravityType.Arm ? GravityTypeValue.Arm_Cosine : GravityTypeValue.Elevator_Static;
+
+        switch (slotID) {
+            case 0:
+                config.Slot0.withKG(kG).withGravityType(gravityType);
+                break;
+            case 1:
+                config.Slot1.withKG(kG).withGravityType(gravityType);
+                break;
+            case 2:
+                config.Slot2.withKG(kG).withGravityType(gravityType);
+                break;
+        }
     }
 
     @Override
     public void setConversionFactor(double factor, ConversionFactorType type) {
         config.Feedback
             .withSensorToMechanismRatio(factor);
+
+        // One ratio scales both position and velocity
+        mirror.setPositionFactor(factor);
+        mirror.setVelocityFactor(factor);
+    }
+
+    /** Limits supply current, which is what sags the battery. */
+    @Override
+    public void setCurrentLimit(double amps) {
+        config.CurrentLimits
+            .withSupplyCurrentLimit(amps)
+            .withSupplyCurrentLimitEnable(true);
+
+        mirror.setCurrentLimit(amps);
+    }
+
+    @Override
+    public CompletableFuture<StatusCode> applyCurrentLimitAsync() {
+        CurrentLimitsConfigs snapshot = new CurrentLimitsConfigs();
+        snapshot.deserialize(config.CurrentLimits.serialize());
+
+        return MotorConfigWorker.getInstance().submit(this, "currentLimit", () -> {
+            StatusCode status = getConfigurator().apply(snapshot);
+            recordConfigWrite();
+
+            if (status.isOK()) {
+                MotorConfigCache.getInstance().markApplied(configCacheKey + ".CurrentLimits", snapshot.serialize());
+            }
+
+            return status;
+        });
     }
 
     @Override
     public int getSelectedProfileSlot() {
-        // NO FUNCTIONALITY YET
-        return 0;
+        return mSlotID;
     }
 
     @Override
     public void selectProfileSlot(int slotID) {
-        // NO FUNCTIONALITY YET
+        mSlotID = slotID;
     }
 
     @Override
@@ -134,45 +395,79 @@ public class TalonFXWrapper extends TalonFX implements BaseMotorWrapper {
                 config.Slot2.kD = kD;
                 config.Slot2.kS = kFF; // takes place of default feedforward
                 break;
+            default:
+                return;
         }
 
-        super.getConfigurator().apply(config);
+        mirror.setGains(slot, kP, kI, kD, kFF);
     }
 
     @Override
     public double getP(int slot) {
-        return ((SlotConfigs) intToFXSlot(slot)).kP;
+        return mirror.getP(slot);
     }
 
     @Override
     public double getI(int slot) {
-        return ((SlotConfigs) intToFXSlot(slot)).kI;
+        return mirror.getI(slot);
     }
 
     @Override
     public double getD(int slot) {
-        return ((SlotConfigs) intToFXSlot(slot)).kD;
+        return mirror.getD(slot);
     }
 
     @Override
     public double getF(int slot) {
-        return ((SlotConfigs) intToFXSlot(slot)).kS;
+        return mirror.getF(slot);
+    }
+
+    @Override
+    public MotorConfigMirror getConfigMirror() {
+        return mirror;
+    }
+
+    /** Refreshes a full configuration from the device, only meaningful once the config was applied. */
+    @Override
+    public CompletableFuture<List<String>> verifyAgainstDevice() {
+        return mirror.verify(this, name, () -> {
+            TalonFXConfiguration actual = new TalonFXConfiguration();
+            getConfigurator().refresh(actual);
+            traffic.recordConfigRead();
+
+            MotorConfigMirror readBack = mirror.copy();
+            readBack.setGains(0, actual.Slot0.kP, actual.Slot0.kI, actual.Slot0.kD, actual.Slot0.kS);
+            readBack.setGains(1, actual.Slot1.kP, actual.Slot1.kI, actual.Slot1.kD, actual.Slot1.kS);
+            readBack.setGains(2, actual.Slot2.kP, actual.Slot2.kI, actual.Slot2.kD, actual.Slot2.kS);
+
+            for (int slot = 0; slot < MotorConfigMirror.SLOT_COUNT; slot++) {
+                readBack.setProfile(slot, actual.MotionMagic.MotionMagicCruiseVelocity, actual.MotionMagic.MotionMagicAcceleration, 0.0);
+            }
+
+            readBack.setCurrentLimit(actual.CurrentLimits.SupplyCurrentLimitEnable ? actual.CurrentLimits.SupplyCurrentLimit : 0.0);
+            readBack.setPositionFactor(actual.Feedback.SensorToMechanismRatio);
+            readBack.setVelocityFactor(actual.Feedback.SensorToMechanismRatio);
+            readBack.setInverted(actual.MotorOutput.Inverted == InvertedValue.CounterClockwise_Positive);
+            readBack.setCoast(actual.MotorOutput.NeutralMode == NeutralModeValue.Coast);
+            return readBack;
+        });
     }
 
     @Override
     public void setIdleMode(boolean shouldCoast) {
-        // NO FUNCTIONALITY YET
+        config.MotorOutput.NeutralMode = shouldCoast ? NeutralModeValue.Coast : NeutralModeValue.Brake;
+        mirror.setCoast(shouldCoast);
     }
 
     @Override
     public String getIdleMode() {
-        // NO FUNCTIONALITY YET
-        return "";
+        return (mirror.isCoast() ? NeutralModeValue.Coast : NeutralModeValue.Brake).toString();
     }
 
     @Override
     public void setMotorInverted(boolean inverted) {
         this.config.MotorOutput.Inverted = inverted ? InvertedValue.CounterClockwise_Positive : InvertedValue.Clockwise_Positive;
+        mirror.setInverted(inverted);
     }
 
     @Override
@@ -180,70 +475,134 @@ public class TalonFXWrapper extends TalonFX implements BaseMotorWrapper {
         this.setPosition(position);
     }
 
+    @Override
+    public void follow(BaseMotorWrapper leader, boolean opposeLeader) {
+        if (!(leader instanceof TalonFX) || !((TalonFX) leader).getNetwork().equals(super.getNetwork()))
+            throw new IllegalArgumentException("A TalonFX can only follow another TalonFX on the same CAN bus");
+
+        mLastControlMode = null; // the next set() has to be sent to leave follow mode
+        super.setControl(new Follower(((TalonFX) leader).getDeviceID(), opposeLeader));
+    }
+
     @Override
     public double getMotorPercent() {
-        return this.getDutyCycle().getValueAsDouble() / 2.0; // since getDutyCycle() ranges from -2.0 to 2.0 apparently
+        traffic.recordRead(Read.OUTPUT);
+        return dutyCycleSignal.getValueAsDouble() / 2.0; // since getDutyCycle() ranges from -2.0 to 2.0 apparently
     }
 
     @Override
     public double getMotorPosition() {
-        return this.getPosition().getValueAsDouble();
+        traffic.recordRead(Read.POSITION);
+        return positionSignal.getValueAsDouble();
     }
 
     @Override
     public double getMotorVelocity() {
-        return this.getVelocity().getValueAsDouble();
+        traffic.recordRead(Read.VELOCITY);
+        return velocitySignal.getValueAsDouble();
     }
 
     @Override
     public double getOutputCurrent() {
-        return this.getTorqueCurrent().getValueAsDouble();
+        traffic.recordRead(Read.CURRENT);
+        return torqueCurrentSignal.getValueAsDouble();
     }
 
     @Override
     public double getTemperature() {
-        return this.getDeviceTemp().getValueAsDouble();
+        traffic.recordRead(Read.TEMPERATURE);
+        return deviceTempSignal.refresh().getValueAsDouble();
     }
 
-    @SuppressWarnings("unchecked")
-    public <T> T intToFXSlot(int slot) {
-        switch (slot) {
-            case 0:
-                return (T) config.Slot0;
-            case 1:
-                return (T) config.Slot1;
-            case 2:
-                return (T) config.Slot2;
-            default:
-                return (T) config.Slot0; // default return to Slot0
+    @Override
+    public int getFaultBits() {
+        traffic.recordRead(Read.FAULTS);
+        return (int) faultFieldSignal.refresh().getValueAsDouble(); // getValue() would box
+    }
+
+    @Override
+    public double getBusVoltage() {
+        traffic.recordRead(Read.BUS_VOLTAGE);
+        return supplyVoltageSignal.refresh().getValueAsDouble();
+    }
+
+    /** Timestamps come from the signals themselves, the compensated position is Phoenix's latency compensation. */
+    @Override
+    public void sample(MotorSample out) {
+        traffic.recordRead(Read.POSITION);
+        traffic.recordRead(Read.VELOCITY);
+
+        double velocity = velocitySignal.getValueAsDouble();
+        out.set(positionSignal.getValueAsDouble(), velocity, positionSignal.getTimestamp().getLatency(), velocity);
+        out.compensatedPosition = getLatencyCompensatedPosition();
+    }
+
+    /** Position extrapolated to the present using the measured velocity and the age of the last refresh. */
+    public double getLatencyCompensatedPosition() {
+        return BaseStatusSignal.getLatencyCompensatedValueAsDouble(positionSignal, velocitySignal);
+    }
+
+    /** FPGA timestamp (seconds) at which the last refreshed position was measured. */
+    public double getPositionTimestamp() {
+        return Timer.getFPGATimestamp() - positionSignal.getTimestamp().getLatency();
+    }
+
+    @Override
+    public CANProfile getCANProfile() {
+        return mLastCANProfile;
+    }
+
+    @Override
+    public void setCANProfile(CANProfile profile) {
+        if (profile != mLastCANProfile) {
+            mLastCANProfile = profile;
+            applyCANProfile();
+        }
+    }
+
+    @Override
+    public double getFeedbackRateFloor() {
+        return mFeedbackRateFloor;
+    }
+
+    @Override
+    public void setFeedbackRateFloor(double hz) {
+        if (hz != mFeedbackRateFloor) {
+            mFeedbackRateFloor = hz;
+            applyCANProfile();
         }
     }
 
-    // public void setCANProfile(CANProfile profile) {
-    //     if (profile != mLastCANProfile) {
-    //         mLastCANProfile = profile;
-    //         switch (profile) {
-    //             case Low: // Low Profiles for minimal CAN utilization
-    //                 super.setStatusFramePeriod(StatusFrame.Status_1_General, 20);
-    //                 super.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, 200);
-    //                 super.setStatusFramePeriod(StatusFrame.Status_12_Feedback1, 200);
-    //                 break;
-    //             case Idle: // Idle Profile for CAN utilization(Call when leaving a motor in idle but may
-    //                        // call again soon)
-    //                 super.setStatusFramePeriod(StatusFrame.Status_1_General, 20);
-    //                 super.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, 100);
-    //                 super.setStatusFramePeriod(StatusFrame.Status_12_Feedback1, 100);
-    //                 break;
-    //             case Default: // Default Update Rates
-    //                 super.setStatusFramePeriod(StatusFrame.Status_1_General, 10);
-    //                 super.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, 20);
-    //                 super.setStatusFramePeriod(StatusFrame.Status_12_Feedback1, 100);
-    //                 break;
-    //         }
-    //     }
-    // }
-
-    // public enum CANProfile {
-    //     Low, Idle, Default
-    // }
+    private void applyCANProfile() {
+        switch (mLastCANProfile) {
+            case Low: // Low Profiles for minimal CAN utilization
+                setSignalFrequencies(4, Math.max(4, mFeedbackRateFloor), 4);
+                break;
+            case Idle: // Idle Profile for CAN utilization(Call when leaving a motor in idle but may
+                       // call again soon)
+                setSignalFrequencies(10, Math.max(20, mFeedbackRateFloor), 4);
+                break;
+            case Default: // Default Update Rates
+                setSignalFrequencies(100, Math.max(50, mFeedbackRateFloor), 4);
+                break;
+        }
+    }
+
+    private void setSignalFrequencies(double outputHz, double feedbackHz, double temperatureHz) {
+        BaseStatusSignal.setUpdateFrequencyForAll(outputHz, dutyCycleSignal, torqueCurrentSignal);
+        BaseStatusSignal.setUpdateFrequencyForAll(feedbackHz, positionSignal, velocitySignal);
+        deviceTempSignal.setUpdateFrequency(temperatureHz);
+
+        traffic.setStatusFrameRate(statusFramesPerSecond(outputHz, feedbackHz, temperatureHz));
+    }
+
+    /** Upper bound, assumes every signal travels in its own frame. */
+    private static double statusFramesPerSecond(double outputHz, double feedbackHz, double temperatureHz) {
+        return 2 * outputHz + 2 * feedbackHz + temperatureHz;
+    }
+
+    @Override
+    public CANTrafficCounter getTraffic() {
+        return traffic;
+    }
 }
\ No newline at end of file
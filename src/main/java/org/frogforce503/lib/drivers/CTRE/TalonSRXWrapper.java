@@ -1,9 +1,24 @@
 package org.frogforce503.lib.drivers.CTRE;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.frogforce503.lib.drivers.BaseMotorWrapper;
+import org.frogforce503.lib.drivers.CANTrafficCounter;
+import org.frogforce503.lib.drivers.CANTrafficCounter.Read;
 import org.frogforce503.lib.drivers.CANMotor.MotorControlMode;
+import org.frogforce503.lib.drivers.MotorConfigCache;
+import org.frogforce503.lib.drivers.MotorConfigMirror;
+import org.frogforce503.lib.drivers.MotorSample;
+import org.frogforce503.lib.drivers.MotorConfigWorker;
 
+import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.Faults;
+import com.ctre.phoenix.motorcontrol.IMotorController;
+import com.ctre.phoenix.motorcontrol.InvertType;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.StatusFrame;
 import com.ctre.phoenix.motorcontrol.can.SlotConfiguration;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
@@ -16,37 +31,128 @@ import com.ctre.phoenix.motorcontrol.can.TalonSRXConfiguration;
  */
 public class TalonSRXWrapper extends TalonSRX implements BaseMotorWrapper {
     protected double mLastSet = Double.NaN;
+    protected double mLastFF = 0.0;
     protected ControlMode mLastControlMode = null;
     protected CANProfile mLastCANProfile = CANProfile.Default;
+    protected double mFeedbackPeriod = 0.020;
+    protected double mFeedbackRateFloor = 0.0;
 
     TalonSRXConfiguration config = new TalonSRXConfiguration();
+    private final MotorConfigMirror mirror = new MotorConfigMirror();
+
+    private final GravityType[] gravityTypes = new GravityType[MotorConfigMirror.SLOT_COUNT];
+    private final double[] gravityKG = new double[MotorConfigMirror.SLOT_COUNT];
+    private double sensorUnitsPerRotation = 4096.0; // CTRE Mag Encoder, quadrature
+
+    private final String configCacheKey;
+    private final Faults faults = new Faults();
+
+    private final String name;
+    private final CANTrafficCounter traffic;
 
     public TalonSRXWrapper(int deviceNumber) {
         super(deviceNumber);
-        super.configFactoryDefault();
+
+        // configAllSettings() writes every parameter, so the device is no longer factory defaulted on every boot
+        configCacheKey = "TalonSRX-" + deviceNumber;
+
+        name = "TalonSRX-" + deviceNumber;
+        traffic = new CANTrafficCounter("", name);
+        traffic.setControlFrameRate(100); // Phoenix 5 resends the control frame every 10 ms
+        traffic.setStatusFrameRate(statusFramesPerSecond(10, 20, 100));
     }
 
     @Override
     public void set(ControlMode mode, double value) {
-        if (value != mLastSet || mode != mLastControlMode) {
-            mLastSet = value;
-            mLastControlMode = mode;
-            super.set(mode, value);
-        }
+        setWithFeedforward(mode, value, 0.0);
     }
 
     @Override
     public void set(MotorControlMode CANMotorMode, double value, double arbFF) {
         ControlMode mode = BaseMotorWrapper.ctreModes.get(CANMotorMode);
 
-        set(mode, value); // feedforward is not applied, have to fix
+        if (mode != ControlMode.PercentOutput) {
+            arbFF += gravityFeedforward(); // Phoenix 5 has no gravity term on the controller, it rides on the arbitrary feedforward
+        }
+
+        setWithFeedforward(mode, value, arbFF);
+    }
+
+    private void setWithFeedforward(ControlMode mode, double value, double arbFF) {
+        if (value != mLastSet || mode != mLastControlMode || arbFF != mLastFF) {
+            mLastSet = value;
+            mLastControlMode = mode;
+            mLastFF = arbFF;
+
+            if (arbFF == 0.0) {
+                super.set(mode, value);
+            } else {
+                super.set(mode, value, DemandType.ArbitraryFeedForward, arbFF);
+            }
+
+            traffic.recordSetpoint();
+        } else {
+            traffic.recordSkippedSetpoint();
+        }
+    }
+
+    @Override
+    public void forceNextSet() {
+        mLastSet = Double.NaN;
     }
 
     /**
      * VERY IMPORTANT, MUST BE DONE AFTER MOTOR INITALIZATION
      */
-    public void applyConfig() {
-        this.configAllSettings(config);
+    public ErrorCode applyConfig() {
+        return applyConfig(config);
+    }
+
+    private ErrorCode applyConfig(TalonSRXConfiguration applied) {
+        ErrorCode error = this.configAllSettings(applied);
+
+        // Phoenix 5 devices store every config they receive, so each apply is also a flash write
+        traffic.recordConfigApply();
+        traffic.recordFlashBurn();
+
+        if (error == ErrorCode.OK) {
+            MotorConfigCache.getInstance().markApplied(configCacheKey, applied.toString());
+        }
+
+        return error;
+    }
+
+    /**
+     * Copies the configuration, so the worker never reads it while the caller keeps changing it. Phoenix 5 configs
+     * have no copy or serialize, this copies every field the wrapper sets.
+     */
+    private TalonSRXConfiguration snapshotConfig() {
+        TalonSRXConfiguration snapshot = new TalonSRXConfiguration();
+
+        snapshot.motionAcceleration = config.motionAcceleration;
+        snapshot.motionCruiseVelocity = config.motionCruiseVelocity;
+        snapshot.motionCurveStrength = config.motionCurveStrength;
+        snapshot.continuousCurrentLimit = config.continuousCurrentLimit;
+        snapshot.peakCurrentLimit = config.peakCurrentLimit;
+
+        copySlot(config.slot0, snapshot.slot0);
+        copySlot(config.slot1, snapshot.slot1);
+        copySlot(config.slot2, snapshot.slot2);
+        copySlot(config.slot3, snapshot.slot3);
+
+        return snapshot;
+    }
+
+    private static void copySlot(SlotConfiguration from, SlotConfiguration to) {
+        to.kP = from.kP;
+        to.kI = from.kI;
+        to.kD = from.kD;
+        to.kF = from.kF;
+        to.integralZone = from.integralZone;
+        to.allowableClosedloopError = from.allowableClosedloopError;
+        to.maxIntegralAccumulator = from.maxIntegralAccumulator;
+        to.closedLoopPeakOutput = from.closedLoopPeakOutput;
+        to.closedLoopPeriod = from.closedLoopPeriod;
     }
 
     @Override
@@ -60,11 +166,71 @@ public class TalonSRXWrapper extends TalonSRX implements BaseMotorWrapper {
         applyConfig();
     }
 
+    /**
+     * Queues a snapshot of the current configuration on the {@link MotorConfigWorker} instead of blocking the caller.
+     * Phoenix 5 devices always retain their configs, so {@code shouldBurnConfig} has no extra effect.
+     */
+    @Override
+    public CompletableFuture<ErrorCode> applyMotorConfigAsync(boolean shouldBurnConfig) {
+        TalonSRXConfiguration snapshot = snapshotConfig();
+        return MotorConfigWorker.getInstance().submit(this, "config", () -> applyConfig(snapshot));
+    }
+
+    /**
+     * Applies the configuration only if it differs from the last one applied to this device.
+     * Phoenix 5 has no per-group apply, so a changed configuration is always pushed in full.
+     *
+     * @return If the device now holds the configuration (unchanged, or pushed successfully)
+     */
+    @Override
+    public boolean applyMotorConfigIfChanged() {
+        MotorConfigCache cache = MotorConfigCache.getInstance();
+
+        if (!cache.hasChanged(configCacheKey, config.toString())) {
+            cache.recordSkipped(configCacheKey);
+            return true;
+        }
+
+        cache.recordPushed(configCacheKey);
+        return applyConfig() == ErrorCode.OK;
+    }
+
     @Override
     public void configureProfiled(int slotID, double maxVel, double maxAcc, double tolerance) {
         config.motionAcceleration = maxAcc;
         config.motionCruiseVelocity = maxVel;
         config.motionCurveStrength = 4; // random default value
+
+        // Motion magic constraints are shared by every slot
+        for (int slot = 0; slot < MotorConfigMirror.SLOT_COUNT; slot++) {
+            mirror.setProfile(slot, maxVel, maxAcc, 0.0);
+        }
+    }
+
+    /** Sets the gravity feedforward of a slot, in percent output like the arbitrary feedforward. */
+    @Override
+    public void configureGravity(int slotID, GravityType type, double kG) {
+        gravityTypes[slotID] = type;
+        gravityKG[slotID] = kG;
+    }
+
+    private double gravityFeedforward() {
+        int slot = getSelectedProfileSlot();
+
+        if (gravityKG[slot] == 0.0)
+            return 0.0;
+
+        return gravityTypes[slot] == GravityType.Arm
+            ? gravityKG[slot] * Math.cos(2 * Math.PI * getSelectedSensorPosition() / sensorUnitsPerRotation)
+            : gravityKG[slot];
+    }
+
+    /**
+     * Native sensor units per mechanism rotation, used to turn the position into the arm angle of the gravity
+     * feedforward. Defaults to 4096, a CTRE Mag Encoder on the arm shaft.
+     */
+    public void setSensorUnitsPerRotation(double unitsPerRotation) {
+        this.sensorUnitsPerRotation = unitsPerRotation;
     }
 
     @Override
@@ -72,6 +238,28 @@ public class TalonSRXWrapper extends TalonSRX implements BaseMotorWrapper {
         // NO FUNCTIONALITY YET
     }
 
+    @Override
+    public void setCurrentLimit(double amps) {
+        config.continuousCurrentLimit = (int) Math.round(amps);
+        config.peakCurrentLimit = 0; // limit to the continuous value right away
+        mirror.setCurrentLimit(amps);
+    }
+
+    @Override
+    public CompletableFuture<ErrorCode> applyCurrentLimitAsync() {
+        int amps = config.continuousCurrentLimit;
+
+        return MotorConfigWorker.getInstance().submit(this, "currentLimit", () -> {
+            ErrorCode continuous = configContinuousCurrentLimit(amps);
+            ErrorCode peak = configPeakCurrentLimit(0);
+            enableCurrentLimit(true);
+
+            traffic.recordConfigApply();
+            traffic.recordFlashBurn();
+            return continuous != ErrorCode.OK ? continuous : peak;
+        });
+    }
+
     @Override
     public int getSelectedProfileSlot() {
         // NO FUNCTIONALITY YET
@@ -104,45 +292,77 @@ public class TalonSRXWrapper extends TalonSRX implements BaseMotorWrapper {
                 config.slot2.kD = kD;
                 config.slot2.kF = kFF; // takes place of default feedforward
                 break;
+            default:
+                return;
         }
 
-        this.configAllSettings(config);
+        mirror.setGains(slot, kP, kI, kD, kFF);
     }
 
     @Override
     public double getP(int slot) {
-        return intToSRXSlot(slot).kP;        
+        return mirror.getP(slot);
     }
 
     @Override
     public double getI(int slot) {
-        return intToSRXSlot(slot).kI;
+        return mirror.getI(slot);
     }
 
     @Override
     public double getD(int slot) {
-        return intToSRXSlot(slot).kD;
+        return mirror.getD(slot);
     }
 
     @Override
     public double getF(int slot) {
-        return intToSRXSlot(slot).kF;
+        return mirror.getF(slot);
     }
 
+    @Override
+    public MotorConfigMirror getConfigMirror() {
+        return mirror;
+    }
+
+    /** Neutral mode is not readable on Phoenix 5, it is never reported as drifted. */
+    @Override
+    public CompletableFuture<List<String>> verifyAgainstDevice() {
+        return mirror.verify(this, name, () -> {
+            TalonSRXConfiguration actual = new TalonSRXConfiguration();
+            getAllConfigs(actual);
+            traffic.recordConfigRead();
+
+            MotorConfigMirror readBack = mirror.copy();
+            readBack.setGains(0, actual.slot0.kP, actual.slot0.kI, actual.slot0.kD, actual.slot0.kF);
+            readBack.setGains(1, actual.slot1.kP, actual.slot1.kI, actual.slot1.kD, actual.slot1.kF);
+            readBack.setGains(2, actual.slot2.kP, actual.slot2.kI, actual.slot2.kD, actual.slot2.kF);
+
+            for (int slot = 0; slot < MotorConfigMirror.SLOT_COUNT; slot++) {
+                readBack.setProfile(slot, actual.motionCruiseVelocity, actual.motionAcceleration, 0.0);
+            }
+
+            readBack.setCurrentLimit(actual.continuousCurrentLimit);
+            readBack.setInverted(getInverted());
+            return readBack;
+        });
+    }
+
+    /** Neutral mode is applied to the device right away, it is not part of the configuration. */
     @Override
     public void setIdleMode(boolean shouldCoast) {
-        // NO FUNCTIONALITY YET
+        super.setNeutralMode(shouldCoast ? NeutralMode.Coast : NeutralMode.Brake);
+        mirror.setCoast(shouldCoast);
     }
 
     @Override
     public String getIdleMode() {
-        // NO FUNCTIONALITY YET
-        return "";
+        return (mirror.isCoast() ? NeutralMode.Coast : NeutralMode.Brake).toString();
     }
 
     @Override
     public void setMotorInverted(boolean inverted) {
         this.setInverted(inverted);
+        mirror.setInverted(inverted);
     }
 
     @Override
@@ -150,59 +370,132 @@ public class TalonSRXWrapper extends TalonSRX implements BaseMotorWrapper {
         this.setSelectedSensorPosition(position);
     }
 
+    @Override
+    public void follow(BaseMotorWrapper leader, boolean opposeLeader) {
+        if (!(leader instanceof IMotorController))
+            throw new IllegalArgumentException("A TalonSRX can only follow another Phoenix 5 motor controller, not " + leader.getClass().getSimpleName());
+
+        mLastControlMode = null; // the next set() has to be sent to leave follow mode
+        super.follow((IMotorController) leader);
+        super.setInverted(opposeLeader ? InvertType.OpposeMaster : InvertType.FollowMaster);
+    }
+
     @Override
     public double getMotorPercent() {
+        traffic.recordRead(Read.OUTPUT);
         return this.getMotorOutputPercent();
     }
 
     @Override
     public double getMotorPosition() {
+        traffic.recordRead(Read.POSITION);
         return this.getSelectedSensorPosition();
     }
 
     @Override
     public double getMotorVelocity() {
+        traffic.recordRead(Read.VELOCITY);
         return this.getSelectedSensorVelocity();
     }
 
-    public SlotConfiguration intToSRXSlot(int slot) {
-        switch (slot) {
-            case 0:
-                return config.slot0;
-            case 1:
-                return config.slot1;
-            case 2:
-                return config.slot2;
-            default:
-                return config.slot0; // default return to Slot0
-        }
+    /** Phoenix 5 has no signal timestamps, the measurement is assumed half a feedback frame old. */
+    @Override
+    public void sample(MotorSample out) {
+        traffic.recordRead(Read.POSITION);
+        traffic.recordRead(Read.VELOCITY);
+
+        double velocity = getSelectedSensorVelocity();
+        out.set(getSelectedSensorPosition(), velocity, mFeedbackPeriod / 2.0, velocity * 10.0); // native units per 100 ms
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public double getOutputCurrent() {
+        traffic.recordRead(Read.CURRENT);
+        return super.getOutputCurrent();
     }
 
-    public enum CANProfile {
-        Low, Idle, Default
+    @Override
+    public double getTemperature() {
+        traffic.recordRead(Read.TEMPERATURE);
+        return super.getTemperature();
     }
 
+    @Override
+    public double getBusVoltage() {
+        traffic.recordRead(Read.BUS_VOLTAGE);
+        return super.getBusVoltage();
+    }
+
+    @Override
+    public int getFaultBits() {
+        traffic.recordRead(Read.FAULTS);
+        super.getFaults(faults);
+        return faults.toBitfield();
+    }
+
+    @Override
+    public CANProfile getCANProfile() {
+        return mLastCANProfile;
+    }
+
+    @Override
     public void setCANProfile(CANProfile profile) {
         if (profile != mLastCANProfile) {
             mLastCANProfile = profile;
-            switch (profile) {
-                case Low: // Low Profiles for minimal CAN utilization
-                    super.setStatusFramePeriod(StatusFrame.Status_1_General, 20);
-                    super.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, 200);
-                    super.setStatusFramePeriod(StatusFrame.Status_12_Feedback1, 200);
-                    break;
-                case Idle: // Idle Profile for CAN utilization(Call when leaving a motor in idle but may
-                           // call again soon)
-                    super.setStatusFramePeriod(StatusFrame.Status_1_General, 20);
-                    super.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, 100);
-                    super.setStatusFramePeriod(StatusFrame.Status_12_Feedback1, 100);
-                    break;
-                case Default: // Default Update Rates
-                    super.setStatusFramePeriod(StatusFrame.Status_1_General, 10);
-                    super.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, 20);
-                    super.setStatusFramePeriod(StatusFrame.Status_12_Feedback1, 100);
-                    break;
-            }
+            applyCANProfile();
+        }
+    }
+
+    @Override
+    public double getFeedbackRateFloor() {
+        return mFeedbackRateFloor;
+    }
+
+    @Override
+    public void setFeedbackRateFloor(double hz) {
+        if (hz != mFeedbackRateFloor) {
+            mFeedbackRateFloor = hz;
+            applyCANProfile();
         }
     }
+
+    private void applyCANProfile() {
+        switch (mLastCANProfile) {
+            case Low: // Low Profiles for minimal CAN utilization
+                setStatusFramePeriods(20, 200, 200);
+                break;
+            case Idle: // Idle Profile for CAN utilization(Call when leaving a motor in idle but may
+                       // call again soon)
+                setStatusFramePeriods(20, 100, 100);
+                break;
+            case Default: // Default Update Rates
+                setStatusFramePeriods(10, 20, 100);
+                break;
+        }
+    }
+
+    /** Feedback0 (the selected sensor) is sped up to the feedback rate floor, if there is one. */
+    private void setStatusFramePeriods(int generalMs, int feedback0Ms, int feedback1Ms) {
+        if (mFeedbackRateFloor > 0.0) {
+            feedback0Ms = Math.max(1, Math.min(feedback0Ms, (int) (1000.0 / mFeedbackRateFloor)));
+        }
+
+        super.setStatusFramePeriod(StatusFrame.Status_1_General, generalMs);
+        super.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, feedback0Ms);
+        super.setStatusFramePeriod(StatusFrame.Status_12_Feedback1, feedback1Ms);
+
+        traffic.setStatusFrameRate(statusFramesPerSecond(generalMs, feedback0Ms, feedback1Ms));
+        mFeedbackPeriod = feedback0Ms / 1000.0;
+    }
+
+    /** Only counts the frames set by the CAN profiles, the slower default frames are left out. */
+    private static double statusFramesPerSecond(double generalMs, double feedback0Ms, double feedback1Ms) {
+        return 1000.0 / generalMs + 1000.0 / feedback0Ms + 1000.0 / feedback1Ms;
+    }
+
+    @Override
+    public CANTrafficCounter getTraffic() {
+        return traffic;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Constructs and configures motor controllers concurrently during robotInit, instead of one after
+ * another with every config blocking on its acknowledgement. Each device is constructed once, then
+ * its configure step is retried with a per-attempt timeout until it succeeds or runs out of attempts.
+ * <p>
+ * Every attempt runs on its own thread. One that times out is interrupted and waited for before the
+ * next starts, so two attempts never talk to the same device at once, and a device whose attempt
+ * does not stop is failed instead of holding up the others.
+ *
+ * <pre>
+ * CompletableFuture&lt;CANMotor&gt; arm = DeviceBringup.getInstance().bringUp(
+ *     "Arm",
+ *     () -&gt; CANMotor.createSparkMax(5, MotorType.kBrushless),
+ *     motor -&gt; { motor.setPIDF(0, 1, 0, 0, 0); return motor.applyConfigIfChanged(); }
+ * );
+ * ...
+ * DeviceBringup.getInstance().awaitAll(3.0);
+ * </pre>
+ */
+public class DeviceBringup {
+    private static final DeviceBringup instance = new DeviceBringup();
+
+    private static final long DEFAULT_TIMEOUT_MS = 1000;
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private final ExecutorService executor;
+    private final ArrayList<Device<?>> devices = new ArrayList<Device<?>>();
+
+    private static class Device<T> {
+        private final String name;
+        private final long startNanos = System.nanoTime();
+        private final CompletableFuture<T> future = new CompletableFuture<T>();
+
+        private volatile int attempts = 0;
+        private volatile long readyNanos = 0;
+
+        private Device(String name) {
+            this.name = name;
+        }
+    }
+
+    private DeviceBringup() {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        executor = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "DeviceBringup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static DeviceBringup getInstance() {
+        return instance;
+    }
+
+    public <T> CompletableFuture<T> bringUp(String name, Supplier<T> construct, Predicate<T> configure) {
+        return bringUp(name, construct, configure, DEFAULT_TIMEOUT_MS, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Queues a device to be brought up on the bring-up threads.
+     *
+     * @param name Name of the device in the startup report
+     * @param construct Creates the device, run exactly once (vendors reject a second object on the same CAN ID)
+     * @param configure Configures the device, returns true once the device acknowledged its config
+     * @param timeoutMs How long a single configure attempt may take
+     * @param maxAttempts How many times configure is tried before the device is reported as failed
+     * @return Future completed with the device once it is ready
+     */
+    public synchronized <T> CompletableFuture<T> bringUp(String name, Supplier<T> construct, Predicate<T> configure, long timeoutMs, int maxAttempts) {
+        Device<T> device = new Device<T>(name);
+        devices.add(device);
+
+        executor.execute(() -> {
+            try {
+                T created = construct.get();
+                configureWithRetries(device, created, configure, timeoutMs, maxAttempts);
+
+                device.readyNanos = System.nanoTime();
+                device.future.complete(created);
+            } catch (Exception e) {
+                device.future.completeExceptionally(e);
+            }
+        });
+
+        return device.future;
+    }
+
+    private <T> void configureWithRetries(Device<T> device, T created, Predicate<T> configure, long timeoutMs, int maxAttempts) throws Exception {
+        Exception lastError = null;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            device.attempts = attempt;
+
+            FutureTask<Boolean> task = new FutureTask<Boolean>(() -> configure.test(created));
+            Thread thread = new Thread(task, "DeviceBringup-" + device.name + "-" + attempt);
+            thread.setDaemon(true);
+            thread.start();
+
+            try {
+                if (task.get(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+
+                lastError = new IllegalStateException(device.name + " did not acknowledge its config");
+            } catch (TimeoutException e) {
+                lastError = new TimeoutException(device.name + " configure attempt timed out after " + timeoutMs + " ms");
+
+                thread.interrupt();
+                thread.join(timeoutMs);
+
+                if (thread.isAlive()) {
+                    throw new TimeoutException(device.name + " configure attempt did not stop after being interrupted");
+                }
+            } catch (ExecutionException e) {
+                lastError = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+
+        throw lastError;
+    }
+
+    /**
+     * Blocks until every queued device is ready, has failed, or the deadline passes, then reports
+     * the readiness and latency of each device.
+     *
+     * @param deadlineSeconds Maximum time to wait for all devices
+     * @return If every device came up in time
+     */
+    public synchronized boolean awaitAll(double deadlineSeconds) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[devices.size()];
+
+        for (int i = 0; i < devices.size(); i++) {
+            futures[i] = devices.get(i).future;
+        }
+
+        boolean allReady = true;
+
+        try {
+            CompletableFuture.allOf(futures).get((long) (deadlineSeconds * 1000), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            allReady = false;
+        } catch (Exception e) {
+            allReady = false; // at least one device failed, details are in the report
+        }
+
+        report();
+        return allReady;
+    }
+
+    private void report() {
+        ArrayList<String> ready = new ArrayList<String>();
+        ArrayList<String> notReady = new ArrayList<String>();
+
+        for (Device<?> device : devices) {
+            if (device.future.isDone() && !device.future.isCompletedExceptionally()) {
+                double latencyMs = (device.readyNanos - device.startNanos) / 1e6;
+                ready.add(String.format("%s (%.0f ms, %d attempts)", device.name, latencyMs, device.attempts));
+            } else {
+                String state = device.future.isCompletedExceptionally() ? "failed" : "timed out";
+                notReady.add(String.format("%s (%s after %d attempts)", device.name, state, device.attempts));
+            }
+        }
+
+        if (!notReady.isEmpty()) {
+            DriverStation.reportError("Devices NOT ready (" + notReady.size() + "): " + notReady, false);
+        }
+
+        Logger.recordOutput("DeviceBringup/Ready", ready.toArray(new String[0]));
+        Logger.recordOutput("DeviceBringup/NotReady", notReady.toArray(new String[0]));
+        Logger.recordOutput("DeviceBringup/ReadyCount", ready.size());
+    }
+}
@@ -0,0 +1,229 @@
+package org.frogforce503.lib.drivers;
+
+import org.frogforce503.lib.drivers.BaseMotorWrapper.GravityType;
+import org.frogforce503.lib.drivers.CANMotor.CANMotorType;
+import org.frogforce503.lib.math.RecursiveLeastSquares;
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Fits the feedforward of a mechanism from its own telemetry while it runs:
+ * {@code V = kS sign(v) + kV v + kA a (+ kG)}, with kG multiplied by {@code cos(position)} for arms. Voltage,
+ * velocity and their timestamps come from the {@link CANMotor}, acceleration is the filtered derivative of velocity,
+ * and the gains are tracked with {@link RecursiveLeastSquares} so they follow the battery and wear over a day.
+ * Each update is constant time and allocation free.
+ * <p>
+ * Samples near standstill are skipped, static friction makes them useless for the fit. Gains are in volts per the
+ * motor's velocity (and acceleration) units.
+ *
+ * <pre>
+ * FeedforwardEstimator shooterFF = new FeedforwardEstimator("Shooter", shooterMotor, null)
+ *     .withAutoApply(0, 0.05, 5.0);
+ * ...
+ * shooterFF.update(); // every loop
+ * </pre>
+ */
+public class FeedforwardEstimator {
+    private static final double NOMINAL_VOLTAGE = 12.0;
+    private static final int MIN_UPDATES_TO_APPLY = 250;
+    private static final String[] GAINS = {"kS", "kV", "kA", "kG"};
+
+    private final CANMotor motor;
+    private final GravityType gravityType;
+    private final RecursiveLeastSquares rls;
+    private final double[] regressor;
+    private final MotorSample sample = new MotorSample();
+
+    private final String[] gainKeys;
+    private final String[] deviationKeys;
+    private final String samplesKey;
+
+    private double velocityDeadband = 0.05;
+    private double accelerationTimeConstant = 0.04;
+    private double positionToRotations = 1.0;
+
+    private double lastVelocity;
+    private double lastTimestamp = Double.NaN;
+    private double acceleration = 0.0;
+
+    private int applySlot = -1;
+    private double maxRelativeDeviation;
+    private double minApplyInterval;
+    private double lastApplyTime = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param name Name under the {@code FeedforwardEstimator/} log key
+     * @param gravityType Shape of the gravity load, {@code null} for mechanisms without one (flywheels, drives)
+     */
+    public FeedforwardEstimator(String name, CANMotor motor, GravityType gravityType) {
+        this.motor = motor;
+        this.gravityType = gravityType;
+
+        int parameters = gravityType == null ? 3 : 4;
+        this.rls = new RecursiveLeastSquares(parameters, 0.999, 1e3);
+        this.regressor = new double[parameters];
+
+        this.gainKeys = new String[parameters];
+        this.deviationKeys = new String[parameters];
+
+        for (int i = 0; i < parameters; i++) {
+            gainKeys[i] = "FeedforwardEstimator/" + name + "/" + GAINS[i];
+            deviationKeys[i] = "FeedforwardEstimator/" + name + "/" + GAINS[i] + "StdDev";
+        }
+
+        this.samplesKey = "FeedforwardEstimator/" + name + "/Samples";
+    }
+
+    /** Velocities smaller than this (in the motor's velocity units) are not fitted. */
+    public FeedforwardEstimator withVelocityDeadband(double velocity) {
+        this.velocityDeadband = velocity;
+        return this;
+    }
+
+    /** Time constant of the low pass filter on the differentiated acceleration, in seconds. */
+    public FeedforwardEstimator withAccelerationFilter(double seconds) {
+        this.accelerationTimeConstant = seconds;
+        return this;
+    }
+
+    /** Mechanism rotations per position unit, for the arm's {@code cos(position)} (0 must be horizontal). */
+    public FeedforwardEstimator withPositionScale(double rotationsPerUnit) {
+        this.positionToRotations = rotationsPerUnit;
+        return this;
+    }
+
+    /**
+     * Writes the fitted velocity feedforward into a slot's F gain once kV is known within {@code maxRelativeDeviation}
+     * (standard deviation over value), at most every {@code minInterval} seconds. The P, I and D gains are kept.
+     * Only REV and TalonSRX have a velocity F gain, TalonFX's F is its kS and is left alone.
+     */
+    public FeedforwardEstimator withAutoApply(int slot, double maxRelativeDeviation, double minInterval) {
+        if (motor.getMotorType() == CANMotorType.TALON_FX) {
+            DriverStation.reportWarning("FeedforwardEstimator cannot apply kV to a TalonFX slot, use calculate() as arbitrary feedforward", false);
+            return this;
+        }
+
+        this.applySlot = slot;
+        this.maxRelativeDeviation = maxRelativeDeviation;
+        this.minApplyInterval = minInterval;
+        return this;
+    }
+
+    /** Seeds the fit, e.g. with the gains from the last SysId run, so it starts close. */
+    public FeedforwardEstimator withInitialGains(double kS, double kV, double kA, double kG) {
+        rls.setParameter(0, kS);
+        rls.setParameter(1, kV);
+        rls.setParameter(2, kA);
+
+        if (gravityType != null)
+            rls.setParameter(3, kG);
+
+        return this;
+    }
+
+    /**
+     * Reads the motor and adds the sample to the fit, call once per loop.
+     *
+     * @return If the sample was fitted (moving, and a new measurement since the last call)
+     */
+    public boolean update() {
+        motor.sample(sample);
+
+        double dt = sample.timestamp - lastTimestamp;
+        boolean fresh = !Double.isNaN(lastTimestamp) && dt > 0.0;
+
+        if (fresh) {
+            double rawAcceleration = (sample.velocity - lastVelocity) / dt;
+            acceleration += (rawAcceleration - acceleration) * dt / (accelerationTimeConstant + dt);
+        }
+
+        lastVelocity = sample.velocity;
+        lastTimestamp = sample.timestamp;
+
+        boolean fitted = fresh && Math.abs(sample.velocity) >= velocityDeadband;
+
+        if (fitted) {
+            fillRegressor(sample.velocity, acceleration, sample.position);
+            rls.update(regressor, motor.getAppliedVoltage());
+            applyIfConfident();
+        }
+
+        publish();
+        return fitted;
+    }
+
+    private void fillRegressor(double velocity, double acceleration, double position) {
+        regressor[0] = Math.signum(velocity);
+        regressor[1] = velocity;
+        regressor[2] = acceleration;
+
+        if (gravityType == GravityType.Elevator) {
+            regressor[3] = 1.0;
+        } else if (gravityType == GravityType.Arm) {
+            regressor[3] = Math.cos(2 * Math.PI * position * positionToRotations);
+        }
+    }
+
+    private void applyIfConfident() {
+        if (applySlot < 0 || rls.getUpdateCount() < MIN_UPDATES_TO_APPLY)
+            return;
+
+        double kV = getKV();
+        double now = Timer.getFPGATimestamp();
+
+        if (kV <= 0.0 || rls.getStandardDeviation(1) > maxRelativeDeviation * kV || now - lastApplyTime < minApplyInterval)
+            return;
+
+        // REV's F is duty cycle per velocity unit, TalonSRX's is 1023-based output per native velocity unit
+        double f = motor.getMotorType() == CANMotorType.TALON_SRX ? kV / NOMINAL_VOLTAGE * 1023.0 : kV / NOMINAL_VOLTAGE;
+
+        motor.setPIDF(applySlot, motor.getP(applySlot), motor.getI(applySlot), motor.getD(applySlot), f);
+        lastApplyTime = now;
+    }
+
+    private void publish() {
+        for (int i = 0; i < gainKeys.length; i++) {
+            Logger.recordOutput(gainKeys[i], rls.getParameter(i));
+            Logger.recordOutput(deviationKeys[i], rls.getStandardDeviation(i));
+        }
+
+        Logger.recordOutput(samplesKey, rls.getUpdateCount());
+    }
+
+    /** Feedforward voltage from the fitted gains, usable as arbitrary feedforward (volts on REV). */
+    public double calculate(double velocity, double acceleration, double position) {
+        fillRegressor(velocity, acceleration, position);
+        return rls.predict(regressor);
+    }
+
+    public double getKS() {
+        return rls.getParameter(0);
+    }
+
+    public double getKV() {
+        return rls.getParameter(1);
+    }
+
+    public double getKA() {
+        return rls.getParameter(2);
+    }
+
+    /** Gravity gain, 0 for mechanisms without one. */
+    public double getKG() {
+        return gravityType == null ? 0.0 : rls.getParameter(3);
+    }
+
+    /** Standard deviation of a gain, in the order kS, kV, kA, kG. */
+    public double getStandardDeviation(int gain) {
+        return rls.getStandardDeviation(gain);
+    }
+
+    /** Restarts the fit, e.g. after a mechanism change. */
+    public void reset() {
+        rls.reset();
+        lastTimestamp = Double.NaN;
+        acceleration = 0.0;
+    }
+}
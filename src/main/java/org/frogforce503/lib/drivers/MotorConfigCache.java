@@ -0,0 +1,114 @@
+package org.frogforce503.lib.drivers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Properties;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Remembers a hash of the last config applied to every motor controller, keyed by device (and
+ * optionally parameter group), in a small file on the roboRIO. On boot, wrappers compare their
+ * config against it and only push what actually changed, which saves seconds of robotInit and flash wear.
+ *
+ * @implNote If a motor controller is swapped for a new one on the same CAN ID, delete the cache file
+ * (or call {@link #clear()}) so its full config is pushed again on the next boot.
+ */
+public class MotorConfigCache {
+    private static final MotorConfigCache instance = new MotorConfigCache();
+
+    private final File file = new File(Filesystem.getOperatingDirectory(), "motor-config-hashes.properties");
+    private final Properties hashes = new Properties();
+
+    private final ArrayList<String> pushed = new ArrayList<String>();
+    private final ArrayList<String> skipped = new ArrayList<String>();
+
+    private boolean dirty = false;
+
+    private MotorConfigCache() {
+        if (file.exists()) {
+            try (FileInputStream in = new FileInputStream(file)) {
+                hashes.load(in);
+            } catch (IOException e) {
+                DriverStation.reportWarning("Failed to read motor config cache, every config will be pushed.", false);
+            }
+        }
+    }
+
+    public static MotorConfigCache getInstance() {
+        return instance;
+    }
+
+    /** Whether {@code serialized} differs from the config last marked as applied under {@code key}. */
+    public synchronized boolean hasChanged(String key, String serialized) {
+        return !hash(serialized).equals(hashes.getProperty(key));
+    }
+
+    /** Records {@code serialized} as the config now on the device under {@code key}. */
+    public synchronized void markApplied(String key, String serialized) {
+        hashes.setProperty(key, hash(serialized));
+        dirty = true;
+    }
+
+    /** Adds a line to the startup report for a device whose config (or part of it) was pushed. */
+    public synchronized void recordPushed(String description) {
+        pushed.add(description);
+    }
+
+    /** Adds a line to the startup report for a device whose config was left untouched. */
+    public synchronized void recordSkipped(String description) {
+        skipped.add(description);
+    }
+
+    /** Forgets every stored hash, so every config is pushed on the next boot. */
+    public synchronized void clear() {
+        hashes.clear();
+        dirty = true;
+    }
+
+    /** Writes the hashes back to the roboRIO if anything changed. */
+    public synchronized void save() {
+        if (!dirty)
+            return;
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            hashes.store(out, "Last applied motor controller config hashes, delete to force a full push");
+            dirty = false;
+        } catch (IOException e) {
+            DriverStation.reportWarning("Failed to save motor config cache.", false);
+        }
+    }
+
+    /** Saves the hashes and logs which devices had their configs pushed vs. skipped during startup. */
+    public synchronized void saveAndReport() {
+        save();
+
+        if (!pushed.isEmpty()) {
+            DriverStation.reportWarning("Motor configs pushed (" + pushed.size() + "): " + pushed, false);
+        }
+
+        Logger.recordOutput("MotorConfigCache/Pushed", pushed.toArray(new String[0]));
+        Logger.recordOutput("MotorConfigCache/Skipped", skipped.toArray(new String[0]));
+        Logger.recordOutput("MotorConfigCache/PushedCount", pushed.size());
+        Logger.recordOutput("MotorConfigCache/SkippedCount", skipped.size());
+    }
+
+    private static String hash(String serialized) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(serialized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error returned from MotorConfigCache hash() --- SHA-256 unavailable", e);
+        }
+    }
+}
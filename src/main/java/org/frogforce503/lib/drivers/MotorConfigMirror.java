@@ -0,0 +1,199 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * In-memory copy of what a wrapper configured on its motor controller: gains and profile constraints per slot,
+ * current limit, conversion factors, inversion and idle mode. Wrappers update it in every config setter and serve
+ * their getters from it, so polling gains from a dashboard never goes through JNI.
+ * <p>
+ * The mirror is only as right as the last apply, {@link #verify} reads the device back off the main loop and
+ * reports every value that drifted (a controller that rebooted without its config burned, for example).
+ */
+public class MotorConfigMirror {
+    public static final int SLOT_COUNT = 4;
+
+    /** Relative, devices store floats and some round further. */
+    private static final double TOLERANCE = 1e-4;
+
+    private final double[] kP = new double[SLOT_COUNT];
+    private final double[] kI = new double[SLOT_COUNT];
+    private final double[] kD = new double[SLOT_COUNT];
+    private final double[] kF = new double[SLOT_COUNT];
+
+    private final double[] maxVelocity = new double[SLOT_COUNT];
+    private final double[] maxAcceleration = new double[SLOT_COUNT];
+    private final double[] allowedError = new double[SLOT_COUNT];
+
+    private double currentLimit = 0.0;
+    private double positionFactor = 1.0;
+    private double velocityFactor = 1.0;
+    private boolean inverted = false;
+    private boolean coast = false;
+
+    private volatile List<String> lastDrift = List.of();
+
+    public void setGains(int slot, double p, double i, double d, double f) {
+        kP[slot] = p;
+        kI[slot] = i;
+        kD[slot] = d;
+        kF[slot] = f;
+    }
+
+    public double getP(int slot) {
+        return kP[slot];
+    }
+
+    public double getI(int slot) {
+        return kI[slot];
+    }
+
+    public double getD(int slot) {
+        return kD[slot];
+    }
+
+    public double getF(int slot) {
+        return kF[slot];
+    }
+
+    public void setProfile(int slot, double maxVelocity, double maxAcceleration, double allowedError) {
+        this.maxVelocity[slot] = maxVelocity;
+        this.maxAcceleration[slot] = maxAcceleration;
+        this.allowedError[slot] = allowedError;
+    }
+
+    public double getMaxVelocity(int slot) {
+        return maxVelocity[slot];
+    }
+
+    public double getMaxAcceleration(int slot) {
+        return maxAcceleration[slot];
+    }
+
+    public double getAllowedError(int slot) {
+        return allowedError[slot];
+    }
+
+    /** Current limit the wrapper configured, 0 while it never set one (the device default is not checked). */
+    public void setCurrentLimit(double amps) {
+        this.currentLimit = amps;
+    }
+
+    public double getCurrentLimit() {
+        return currentLimit;
+    }
+
+    public void setPositionFactor(double factor) {
+        this.positionFactor = factor;
+    }
+
+    public double getPositionFactor() {
+        return positionFactor;
+    }
+
+    public void setVelocityFactor(double factor) {
+        this.velocityFactor = factor;
+    }
+
+    public double getVelocityFactor() {
+        return velocityFactor;
+    }
+
+    public void setInverted(boolean inverted) {
+        this.inverted = inverted;
+    }
+
+    public boolean isInverted() {
+        return inverted;
+    }
+
+    public void setCoast(boolean coast) {
+        this.coast = coast;
+    }
+
+    public boolean isCoast() {
+        return coast;
+    }
+
+    /** Drift found by the last {@link #verify}, empty if everything matched or nothing was verified yet. */
+    public List<String> getLastDrift() {
+        return lastDrift;
+    }
+
+    /**
+     * Reads the device back on the {@link MotorConfigWorker} and compares it with this mirror. Drift is reported
+     * as a Driver Station warning and kept for {@link #getLastDrift()}.
+     *
+     * @param device Wrapper being verified, coalesces repeated verifies of the same device
+     * @param name Name of the device in the report
+     * @param readBack Builds a mirror from the values read from the device, values it cannot read are copied from this mirror
+     * @return Future completed with a description of every drifted value
+     */
+    public CompletableFuture<List<String>> verify(Object device, String name, Supplier<MotorConfigMirror> readBack) {
+        return MotorConfigWorker.getInstance().submit(device, "verify", () -> {
+            List<String> drift = diff(readBack.get());
+            lastDrift = drift;
+
+            if (!drift.isEmpty()) {
+                DriverStation.reportWarning(name + " config drifted from what was applied: " + drift, false);
+            }
+
+            return drift;
+        });
+    }
+
+    /** Copy of this mirror, the starting point of a read back that cannot read every value. */
+    public MotorConfigMirror copy() {
+        MotorConfigMirror copy = new MotorConfigMirror();
+
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            copy.setGains(slot, kP[slot], kI[slot], kD[slot], kF[slot]);
+            copy.setProfile(slot, maxVelocity[slot], maxAcceleration[slot], allowedError[slot]);
+        }
+
+        copy.currentLimit = currentLimit;
+        copy.positionFactor = positionFactor;
+        copy.velocityFactor = velocityFactor;
+        copy.inverted = inverted;
+        copy.coast = coast;
+        return copy;
+    }
+
+    private List<String> diff(MotorConfigMirror actual) {
+        ArrayList<String> drift = new ArrayList<String>();
+
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            compare(drift, "kP[" + slot + "]", kP[slot], actual.kP[slot]);
+            compare(drift, "kI[" + slot + "]", kI[slot], actual.kI[slot]);
+            compare(drift, "kD[" + slot + "]", kD[slot], actual.kD[slot]);
+            compare(drift, "kF[" + slot + "]", kF[slot], actual.kF[slot]);
+            compare(drift, "maxVelocity[" + slot + "]", maxVelocity[slot], actual.maxVelocity[slot]);
+            compare(drift, "maxAcceleration[" + slot + "]", maxAcceleration[slot], actual.maxAcceleration[slot]);
+            compare(drift, "allowedError[" + slot + "]", allowedError[slot], actual.allowedError[slot]);
+        }
+
+        if (currentLimit > 0.0)
+            compare(drift, "currentLimit", currentLimit, actual.currentLimit);
+
+        compare(drift, "positionFactor", positionFactor, actual.positionFactor);
+        compare(drift, "velocityFactor", velocityFactor, actual.velocityFactor);
+
+        if (inverted != actual.inverted)
+            drift.add("inverted: expected " + inverted + ", device has " + actual.inverted);
+
+        if (coast != actual.coast)
+            drift.add("coast: expected " + coast + ", device has " + actual.coast);
+
+        return drift;
+    }
+
+    private static void compare(List<String> drift, String name, double expected, double actual) {
+        if (Math.abs(expected - actual) > TOLERANCE * Math.max(1.0, Math.abs(expected)))
+            drift.add(name + ": expected " + expected + ", device has " + actual);
+    }
+}
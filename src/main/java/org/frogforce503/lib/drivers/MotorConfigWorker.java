@@ -0,0 +1,111 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Background thread that applies motor controller configs off the main loop. Config applies block
+ * on CAN acknowledgements (and flash writes when persisting), which is far too slow for a 20 ms loop.
+ * <p>
+ * Repeated edits to the same device are coalesced: if a device already has a config of the same
+ * kind waiting in the queue, the new one replaces it and both callers get the same future, so only
+ * the latest values are sent. A persist request is kept when a later snapshot replaces it, so the
+ * latest values are also the ones written to flash.
+ */
+public class MotorConfigWorker {
+    private static final MotorConfigWorker instance = new MotorConfigWorker();
+
+    private final LinkedBlockingQueue<Key> queue = new LinkedBlockingQueue<Key>();
+    private final HashMap<Key, PendingConfig<?>> pending = new HashMap<Key, PendingConfig<?>>();
+
+    private record Key(Object device, String kind) {}
+
+    /** Blocking config apply, told whether any of the coalesced requests asked to write flash. */
+    @FunctionalInterface
+    public interface ConfigApply<T> {
+        T apply(boolean persist);
+    }
+
+    private static class PendingConfig<T> {
+        private final CompletableFuture<T> future = new CompletableFuture<T>();
+        private ConfigApply<T> apply;
+        private boolean persist = false;
+
+        private void run() {
+            try {
+                future.complete(apply.apply(persist));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private MotorConfigWorker() {
+        Thread thread = new Thread(this::run, "MotorConfigWorker");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static MotorConfigWorker getInstance() {
+        return instance;
+    }
+
+    /**
+     * Queues a config apply for a device.
+     *
+     * @param device The motor controller being configured, used to coalesce repeated edits
+     * @param kind Kind of apply (e.g. {@code "config"}, {@code "currentLimit"}), only applies of the same kind are coalesced
+     * @param apply Blocking call that applies a snapshot of the config and returns the vendor's error code
+     * @return Future completed with the vendor's error code ({@code REVLibError}, {@code StatusCode}, {@code ErrorCode}) once applied
+     */
+    public <T> CompletableFuture<T> submit(Object device, String kind, Supplier<T> apply) {
+        return submit(device, kind, false, persist -> apply.get());
+    }
+
+    /**
+     * Queues a config apply for a device that may also write flash. Coalesced applies persist if any of them asked
+     * to, with the latest snapshot, so flash never ends up with older values than the device.
+     *
+     * @param persist If this apply should write flash
+     * @param apply Blocking call that applies a snapshot of the config, persisting if told to
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> CompletableFuture<T> submit(Object device, String kind, boolean persist, ConfigApply<T> apply) {
+        Key key = new Key(device, kind);
+        PendingConfig<T> job = (PendingConfig<T>) pending.get(key);
+
+        if (job == null) {
+            job = new PendingConfig<T>();
+            pending.put(key, job);
+            queue.add(key);
+        }
+
+        job.apply = apply; // latest edit wins
+        job.persist |= persist;
+        return job.future;
+    }
+
+    private void run() {
+        while (true) {
+            Key key;
+
+            try {
+                key = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            PendingConfig<?> job;
+
+            synchronized (this) {
+                job = pending.remove(key);
+            }
+
+            if (job != null) {
+                job.run();
+            }
+        }
+    }
+}
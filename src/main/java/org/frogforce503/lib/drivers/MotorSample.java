@@ -0,0 +1,43 @@
+package org.frogforce503.lib.drivers;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Position and velocity of a motor together with the time they were measured, for consumers that fuse motor
+ * state with other timestamped measurements (odometry, vision). Callers own the holder and pass it to
+ * {@link CANMotor#sample(MotorSample)} every loop, so reading a sample never allocates.
+ * <p>
+ * How exact the timestamp is depends on the controller: Phoenix 6 signals carry their own timestamp, for
+ * Phoenix 5 and REV it is estimated as half the feedback status frame period before the read.
+ */
+public class MotorSample {
+    /** Position as measured, in the wrapper's position units. */
+    public double position;
+
+    /** Velocity as measured, in the wrapper's velocity units. */
+    public double velocity;
+
+    /** FPGA timestamp (seconds) at which position and velocity were measured. */
+    public double timestamp;
+
+    /** Position extrapolated from its measurement to the time of the read, using the measured velocity. */
+    public double compensatedPosition;
+
+    /** Seconds between the measurement and now. */
+    public double getAge() {
+        return Timer.getFPGATimestamp() - timestamp;
+    }
+
+    /**
+     * Fills every field at once, used by the wrappers.
+     *
+     * @param latency Seconds between the measurement and the read
+     * @param positionPerSecond Velocity converted to position units per second, for the compensation
+     */
+    public void set(double position, double velocity, double latency, double positionPerSecond) {
+        this.position = position;
+        this.velocity = velocity;
+        this.timestamp = Timer.getFPGATimestamp() - latency;
+        this.compensatedPosition = position + positionPerSecond * latency;
+    }
+}
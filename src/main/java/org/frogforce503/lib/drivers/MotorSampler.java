@@ -0,0 +1,251 @@
+package org.frogforce503.lib.drivers;
+
+import org.frogforce503.lib.drivers.CANMotor.CANMotorType;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.Logger;
+import org.littletonrobotics.junction.inputs.LoggableInputs;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.revrobotics.RelativeEncoder;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Samples the position and velocity of registered {@link CANMotor}s on a dedicated thread, faster than
+ * the main loop (250 Hz by default), into preallocated ring buffers. Each loop {@link #periodic()} drains
+ * the buffers without taking any locks and passes the samples through AdvantageKit as inputs, so replay
+ * sees exactly the samples the robot saw. When a buffer is full, new samples are dropped (and counted)
+ * rather than overwriting ones the main loop has not read yet.
+ * <p>
+ * Samples are only as fresh as the motor controller's status frames, so registering a motor raises its
+ * feedback rate floor ({@link CANMotor#setFeedbackRateFloor}) to the sampling rate, whatever its CAN profile.
+ *
+ * @implNote Register every motor before calling {@link #start()}.
+ */
+public class MotorSampler {
+    private static final MotorSampler instance = new MotorSampler();
+
+    private static final int BUFFER_CAPACITY = 64; // must be a power of two, ~250 ms at 250 Hz
+
+    private double frequencyHz = 250.0;
+
+    private volatile Channel[] channels = new Channel[0];
+    private Notifier notifier;
+
+    /**
+     * Samples drained during the last loop, logged and replayed as AdvantageKit inputs. The arrays have a fixed
+     * capacity, only the first {@link #size()} entries belong to the last loop.
+     */
+    public static class Samples implements LoggableInputs {
+        public double[] timestamps = new double[BUFFER_CAPACITY];
+        public double[] positions = new double[BUFFER_CAPACITY];
+        public double[] velocities = new double[BUFFER_CAPACITY];
+        public int count = 0;
+
+        @Override
+        public void toLog(LogTable table) {
+            table.put("Timestamps", timestamps);
+            table.put("Positions", positions);
+            table.put("Velocities", velocities);
+            table.put("Count", count);
+        }
+
+        @Override
+        public void fromLog(LogTable table) {
+            timestamps = table.get("Timestamps", timestamps);
+            positions = table.get("Positions", positions);
+            velocities = table.get("Velocities", velocities);
+            count = table.get("Count", count);
+        }
+
+        /** Number of samples taken during the last loop. */
+        public int size() {
+            return count;
+        }
+    }
+
+    /** Reads one motor from a sampling thread, without touching the main loop's caches. Also used by {@link SysIdCapture}. */
+    static abstract class Source {
+        /** Fetches fresh values from the device, called once per sample before the reads. */
+        void refresh() {}
+
+        abstract double readPosition();
+        abstract double readVelocity();
+
+        /** Age in seconds of the values just read. */
+        double latency() {
+            return 0.0;
+        }
+    }
+
+    private static class Channel {
+        private final String key;
+        private final String droppedKey;
+        private final Source source;
+        private final Samples samples = new Samples();
+
+        // Single producer (sampling thread) / single consumer (main loop) ring, the producer never passes the consumer
+        private final double[] timestamps = new double[BUFFER_CAPACITY];
+        private final double[] positions = new double[BUFFER_CAPACITY];
+        private final double[] velocities = new double[BUFFER_CAPACITY];
+        private volatile long written = 0;
+        private volatile long read = 0;
+        private volatile long dropped = 0; // only written by the producer
+
+        private Channel(String name, Source source) {
+            this.key = "MotorSampler/" + name;
+            this.droppedKey = key + "/Dropped";
+            this.source = source;
+        }
+
+        private void sample() {
+            if (written - read >= BUFFER_CAPACITY) {
+                dropped = dropped + 1; // full, the main loop is still reading these slots
+                return;
+            }
+
+            source.refresh();
+
+            int i = (int) (written & (BUFFER_CAPACITY - 1));
+            timestamps[i] = Timer.getFPGATimestamp() - source.latency();
+            positions[i] = source.readPosition();
+            velocities[i] = source.readVelocity();
+
+            written = written + 1; // volatile write publishes the slot
+        }
+
+        private void drain() {
+            long start = read;
+            int count = (int) (written - start);
+
+            for (int n = 0; n < count; n++) {
+                int i = (int) ((start + n) & (BUFFER_CAPACITY - 1));
+                samples.timestamps[n] = timestamps[i];
+                samples.positions[n] = positions[i];
+                samples.velocities[n] = velocities[i];
+            }
+
+            samples.count = count;
+            read = start + count; // volatile write hands the slots back to the producer
+        }
+    }
+
+    private MotorSampler() {}
+
+    public static MotorSampler getInstance() {
+        return instance;
+    }
+
+    /** Sets the sampling rate, must be called before {@link #start()}. */
+    public void setFrequency(double frequencyHz) {
+        this.frequencyHz = frequencyHz;
+    }
+
+    /**
+     * Adds a motor to be sampled.
+     *
+     * @param name Name of the motor under the {@code MotorSampler/} log key
+     * @param motor Motor to sample
+     * @return Samples of the motor, refreshed every loop by {@link #periodic()}
+     */
+    public synchronized Samples register(String name, CANMotor motor) {
+        Channel channel = new Channel(name, createSource(motor));
+        motor.setFeedbackRateFloor(Math.max(motor.getFeedbackRateFloor(), frequencyHz));
+
+        Channel[] grown = new Channel[channels.length + 1];
+        System.arraycopy(channels, 0, grown, 0, channels.length);
+        grown[channels.length] = channel;
+        channels = grown;
+
+        return channel.samples;
+    }
+
+    /** Starts the sampling thread. Does nothing when replaying a log, the samples come from the log instead. */
+    public synchronized void start() {
+        if (notifier != null || Logger.hasReplaySource())
+            return;
+
+        notifier = new Notifier(this::sampleAll);
+        notifier.setName("MotorSampler");
+        notifier.startPeriodic(1.0 / frequencyHz);
+    }
+
+    private void sampleAll() {
+        Channel[] current = channels;
+
+        for (int i = 0; i < current.length; i++) {
+            current[i].sample();
+        }
+    }
+
+    /** Drains every buffer and logs the samples, call once per loop before anything reads them. */
+    public void periodic() {
+        Channel[] current = channels;
+
+        for (int i = 0; i < current.length; i++) {
+            Channel channel = current[i];
+
+            channel.drain();
+            Logger.processInputs(channel.key, channel.samples);
+            Logger.recordOutput(channel.droppedKey, channel.dropped);
+        }
+    }
+
+    /**
+     * Builds a source reading a motor directly. The caller raises the motor's feedback rate floor, the source itself
+     * never changes frame rates.
+     */
+    static Source createSource(CANMotor motor) {
+        if (RobotBase.isSimulation()) {
+            return new Source() {
+                double readPosition() { return motor.getPosition(); }
+                double readVelocity() { return motor.getVelocity(); }
+            };
+        }
+
+        CANMotorType type = motor.getMotorType();
+
+        if (type == CANMotorType.TALON_FX) {
+            // Own copies of the signals, so refreshing them here never races the main loop's refresh
+            StatusSignal<Angle> position = motor.getTalonFX().getPosition().clone();
+            StatusSignal<AngularVelocity> velocity = motor.getTalonFX().getVelocity().clone();
+
+            return new Source() {
+                void refresh() { BaseStatusSignal.refreshAll(position, velocity); }
+                double readPosition() { return position.getValueAsDouble(); }
+                double readVelocity() { return velocity.getValueAsDouble(); }
+                double latency() { return position.getTimestamp().getLatency(); }
+            };
+        }
+
+        if (type == CANMotorType.TALON_SRX) {
+            return new Source() {
+                double readPosition() { return motor.getTalonSRX().getSelectedSensorPosition(); }
+                double readVelocity() { return motor.getTalonSRX().getSelectedSensorVelocity(); }
+                double latency() { return frameAge(motor); }
+            };
+        }
+
+        // Straight from the encoder, bypassing the Spark's per-loop read cache
+        RelativeEncoder encoder = type == CANMotorType.SPARK_MAX
+            ? motor.getSparkMax().getFeedbackEncoder()
+            : motor.getSparkFlex().getFeedbackEncoder();
+
+        return new Source() {
+            double readPosition() { return encoder.getPosition(); }
+            double readVelocity() { return encoder.getVelocity(); }
+            double latency() { return frameAge(motor); }
+        };
+    }
+
+    /** Phoenix 5 and REV frames carry no timestamp, on average they are half a feedback period old when read. */
+    private static double frameAge(CANMotor motor) {
+        double hz = motor.getFeedbackRateFloor();
+        return hz > 0.0 ? 0.5 / hz : 0.0;
+    }
+}
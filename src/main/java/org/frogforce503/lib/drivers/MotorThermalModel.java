@@ -0,0 +1,136 @@
+package org.frogforce503.lib.drivers;
+
+/**
+ * Lumped two-node thermal model of a brushed or brushless motor: the winding heats from {@code I^2 R} losses (with
+ * copper's resistance rising with temperature) and passes heat to the housing, which passes it to the air.
+ * <pre>
+ * Cw dTw/dt = I^2 R(Tw) - (Tw - Th) / Rwh
+ * Ch dTh/dt = (Tw - Th) / Rwh - (Th - Tamb) / Rha
+ * </pre>
+ * The controller's temperature sensor sits closer to the housing than to the winding, so reported temperatures
+ * pull the housing node towards them, the winding estimate leads the report by the winding's time constant.
+ * Updates only touch primitive fields.
+ */
+public class MotorThermalModel {
+    private static final double COPPER_TEMPERATURE_COEFFICIENT = 0.00393; // per degree C, from 25 C
+    private static final double REPORTED_CORRECTION_RATE = 0.05;         // per second
+
+    /**
+     * Thermal parameters per motor, estimated from stall resistance, motor masses and published thermal testing.
+     * Derating starts at {@code deratingStart} and reaches the hot limit at {@code maxWinding}, before the motor's
+     * or controller's own thermal shutdown.
+     */
+    public enum Type {
+        //          R25 (ohm)  Cw (J/K)  Ch (J/K)  Rwh (K/W)  Rha (K/W)  deratingStart (C)  maxWinding (C)
+        NEO(        0.114,     60.0,     220.0,    0.50,      2.0,       80.0,              110.0),
+        VORTEX(     0.057,     70.0,     250.0,    0.40,      1.8,       80.0,              110.0),
+        KRAKEN_X60( 0.033,     80.0,     300.0,    0.30,      1.5,       70.0,              100.0),
+        RS775(      0.089,     15.0,     60.0,     1.00,      3.0,       70.0,              100.0);
+
+        private final double resistance;
+        private final double windingCapacity;
+        private final double housingCapacity;
+        private final double windingToHousing;
+        private final double housingToAmbient;
+        private final double deratingStart;
+        private final double maxWinding;
+
+        Type(double resistance, double windingCapacity, double housingCapacity, double windingToHousing,
+             double housingToAmbient, double deratingStart, double maxWinding) {
+            this.resistance = resistance;
+            this.windingCapacity = windingCapacity;
+            this.housingCapacity = housingCapacity;
+            this.windingToHousing = windingToHousing;
+            this.housingToAmbient = housingToAmbient;
+            this.deratingStart = deratingStart;
+            this.maxWinding = maxWinding;
+        }
+    }
+
+    private final Type type;
+    private final int motorCount;
+
+    private double ambient = 25.0;
+    private double winding = Double.NaN;
+    private double housing = Double.NaN;
+
+    /**
+     * @param type Motor parameters
+     * @param motorCount Motors sharing the measured current, 1 unless the current is a total
+     */
+    public MotorThermalModel(Type type, int motorCount) {
+        this.type = type;
+        this.motorCount = motorCount;
+    }
+
+    public MotorThermalModel(Type type) {
+        this(type, 1);
+    }
+
+    public void setAmbient(double celsius) {
+        this.ambient = celsius;
+    }
+
+    /** Starts both nodes at a known temperature, e.g. the first reported one so a motor that is still hot starts hot. */
+    public void reset(double celsius) {
+        winding = celsius;
+        housing = celsius;
+    }
+
+    public boolean isInitialized() {
+        return !Double.isNaN(winding);
+    }
+
+    /**
+     * Advances the model.
+     *
+     * @param current Measured (output) current in amps
+     * @param dt Seconds since the last update
+     */
+    public void update(double current, double dt) {
+        if (!isInitialized())
+            reset(ambient);
+
+        double perMotor = current / motorCount;
+        double resistance = type.resistance * (1.0 + COPPER_TEMPERATURE_COEFFICIENT * (winding - 25.0));
+
+        double heat = perMotor * perMotor * resistance;
+        double toHousing = (winding - housing) / type.windingToHousing;
+        double toAmbient = (housing - ambient) / type.housingToAmbient;
+
+        winding += (heat - toHousing) / type.windingCapacity * dt;
+        housing += (toHousing - toAmbient) / type.housingCapacity * dt;
+    }
+
+    /** Pulls the housing node towards a temperature reported by the controller. */
+    public void correct(double reported, double dt) {
+        if (!isInitialized()) {
+            reset(reported);
+            return;
+        }
+
+        housing += (reported - housing) * Math.min(1.0, REPORTED_CORRECTION_RATE * dt);
+    }
+
+    public double getWindingTemperature() {
+        return winding;
+    }
+
+    public double getHousingTemperature() {
+        return housing;
+    }
+
+    /**
+     * Current limit allowed at the estimated winding temperature, blending smoothly (smoothstep) from
+     * {@code coolAmps} at the derating start to {@code hotAmps} at the maximum winding temperature.
+     */
+    public double getCurrentCeiling(double coolAmps, double hotAmps) {
+        if (!isInitialized())
+            return coolAmps;
+
+        double t = (winding - type.deratingStart) / (type.maxWinding - type.deratingStart);
+        t = Math.max(0.0, Math.min(1.0, t));
+
+        return coolAmps + (hotAmps - coolAmps) * t * t * (3.0 - 2.0 * t);
+    }
+}
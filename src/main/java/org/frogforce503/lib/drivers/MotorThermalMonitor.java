@@ -0,0 +1,117 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.ArrayList;
+
+import org.frogforce503.lib.drivers.MotorThermalModel.Type;
+import org.frogforce503.lib.drivers.SignalPoller.PolledSignal;
+import org.frogforce503.lib.drivers.SignalPoller.Signal;
+import org.frogforce503.lib.drivers.SignalPoller.Tier;
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Runs a {@link MotorThermalModel} for every registered motor each loop from its measured current, and derates the
+ * motor's current limit through {@link CANMotor#setThermalCeiling} as the estimated winding temperature climbs, well
+ * before the hardware shuts down. Reported temperatures are only polled at 2 Hz (see {@link SignalPoller}) and
+ * used to correct the model, logged next to the prediction.
+ *
+ * <pre>
+ * MotorThermalMonitor.getInstance().register("Elevator", elevatorMotor, Type.KRAKEN_X60, 60.0, 20.0);
+ * </pre>
+ */
+public class MotorThermalMonitor {
+    private static final MotorThermalMonitor instance = new MotorThermalMonitor();
+
+    private static final double MAX_DT = 0.1; // bounds a catch-up after a stall, e.g. a breakpoint
+
+    private static class Entry {
+        private final CANMotor motor;
+        private final MotorThermalModel model;
+        private final PolledSignal reported;
+        private final double coolAmps;
+        private final double hotAmps;
+
+        private final String windingKey;
+        private final String housingKey;
+        private final String reportedKey;
+        private final String ceilingKey;
+
+        private double lastReportTime = Double.NaN;
+
+        private Entry(String name, CANMotor motor, Type type, double coolAmps, double hotAmps) {
+            this.motor = motor;
+            this.model = new MotorThermalModel(type);
+            this.reported = motor.poll(Signal.TEMPERATURE, Tier.TWO_HZ);
+            this.coolAmps = coolAmps;
+            this.hotAmps = hotAmps;
+
+            String prefix = "MotorThermal/" + name + "/";
+            this.windingKey = prefix + "PredictedWinding";
+            this.housingKey = prefix + "PredictedHousing";
+            this.reportedKey = prefix + "Reported";
+            this.ceilingKey = prefix + "CurrentCeiling";
+        }
+    }
+
+    private final ArrayList<Entry> entryList = new ArrayList<Entry>();
+    private volatile Entry[] entries = new Entry[0];
+
+    private double lastTime = Double.NaN;
+
+    private MotorThermalMonitor() {}
+
+    public static MotorThermalMonitor getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts modeling a motor.
+     *
+     * @param name Name under the {@code MotorThermal/} log key
+     * @param type Motor the thermal parameters are taken from
+     * @param coolAmps Current limit while the winding is below the type's derating start
+     * @param hotAmps Current limit once the winding reaches the type's maximum temperature
+     * @return The motor's model, for reading its estimates
+     */
+    public synchronized MotorThermalModel register(String name, CANMotor motor, Type type, double coolAmps, double hotAmps) {
+        Entry entry = new Entry(name, motor, type, coolAmps, hotAmps);
+
+        entryList.add(entry);
+        entries = entryList.toArray(new Entry[0]);
+
+        return entry.model;
+    }
+
+    /** Advances every model by the time since the last call and updates the ceilings, call once per loop. */
+    public void periodic() {
+        double now = Timer.getFPGATimestamp();
+        double dt = Double.isNaN(lastTime) ? 0.0 : Math.min(now - lastTime, MAX_DT);
+        lastTime = now;
+
+        Entry[] current = entries;
+
+        for (int i = 0; i < current.length; i++) {
+            Entry entry = current[i];
+
+            // Only correct on a fresh report, the poller keeps returning the last one in between. Simulated
+            // controllers report no meaningful temperature, so the model runs open loop there
+            if (RobotBase.isReal() && entry.reported.hasValue() && entry.reported.getTimestamp() != entry.lastReportTime) {
+                double sinceReport = Double.isNaN(entry.lastReportTime) ? 0.0 : entry.reported.getTimestamp() - entry.lastReportTime;
+                entry.model.correct(entry.reported.getValue(), sinceReport);
+                entry.lastReportTime = entry.reported.getTimestamp();
+            }
+
+            entry.model.update(entry.motor.getOutputCurrent(), dt);
+
+            double ceiling = entry.model.getCurrentCeiling(entry.coolAmps, entry.hotAmps);
+            entry.motor.setThermalCeiling(ceiling);
+
+            Logger.recordOutput(entry.windingKey, entry.model.getWindingTemperature());
+            Logger.recordOutput(entry.housingKey, entry.model.getHousingTemperature());
+            Logger.recordOutput(entry.reportedKey, entry.reported.getValue());
+            Logger.recordOutput(entry.ceilingKey, ceiling);
+        }
+    }
+}
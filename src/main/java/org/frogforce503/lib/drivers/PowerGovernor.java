@@ -0,0 +1,211 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Splits the current the battery can deliver without browning out across the registered motors, by priority.
+ * <p>
+ * The battery is modeled as an open circuit voltage behind an internal resistance, {@code V = Voc - R * I}, and both
+ * are estimated online with recursive least squares from the bus voltage and the total supply current of the
+ * registered motors. The budget is the current that would pull the bus down to the target voltage, less a reserve
+ * for everything that is not a registered motor. Each consumer first gets its minimum, what is left goes to the
+ * highest priority first (equal priorities share it in proportion to their headroom). Limits reach the motors
+ * through {@link CANMotor#requestCurrentLimit}, which keeps them from being pushed every loop.
+ *
+ * <pre>
+ * PowerGovernor.getInstance().register("Drive", 10, 30.0, 60.0, driveMotors);
+ * PowerGovernor.getInstance().register("Elevator", 5, 10.0, 40.0, elevatorLeader, elevatorFollower);
+ * </pre>
+ *
+ * @implNote Limits are applied as the controllers' current limits, which bound output current on REV. Output current
+ * is never below supply current, so the budget is conservative on those controllers.
+ */
+public class PowerGovernor {
+    private static final PowerGovernor instance = new PowerGovernor();
+
+    private static final double FORGETTING_FACTOR = 0.995;
+    private static final double MIN_RESISTANCE = 0.005;
+    private static final double MAX_RESISTANCE = 0.1;
+
+    private double targetVoltage = 7.5;     // brownout is at 6.0 V, keep a margin for transients
+    private double reserveCurrent = 10.0;   // roboRIO, radio, coprocessors, unregistered motors
+
+    // RLS state for [Voc, R] with regressor [1, -I]
+    private double openCircuitVoltage = 12.5;
+    private double resistance = 0.02;
+    private double p00 = 100.0, p01 = 0.0, p11 = 1.0;
+
+    private final ArrayList<Consumer> consumerList = new ArrayList<Consumer>();
+    private volatile Consumer[] consumers = new Consumer[0];
+
+    private double supplyCurrent = 0.0;
+    private double budget = 0.0;
+
+    private static class Consumer {
+        private final int priority;
+        private final double minAmps;
+        private final double maxAmps;
+        private final CANMotor[] motors;
+        private final String limitKey;
+
+        private double limit;
+
+        private Consumer(String name, int priority, double minAmps, double maxAmps, CANMotor[] motors) {
+            this.priority = priority;
+            this.minAmps = minAmps;
+            this.maxAmps = maxAmps;
+            this.motors = motors;
+            this.limitKey = "PowerGovernor/" + name + "/Limit";
+            this.limit = maxAmps;
+        }
+    }
+
+    private PowerGovernor() {}
+
+    public static PowerGovernor getInstance() {
+        return instance;
+    }
+
+    /** Bus voltage the budget is sized to hold under load. */
+    public void setTargetVoltage(double volts) {
+        this.targetVoltage = volts;
+    }
+
+    /** Current set aside for loads the governor does not control. */
+    public void setReserveCurrent(double amps) {
+        this.reserveCurrent = amps;
+    }
+
+    /**
+     * Puts motors under the governor. Every motor of a consumer gets the same limit.
+     *
+     * @param name Name under the {@code PowerGovernor/} log key
+     * @param priority Higher priorities get the budget above the minimums first
+     * @param minAmps Limit per motor the consumer always gets, even if the budget does not cover it
+     * @param maxAmps Limit per motor when the budget allows it
+     */
+    public synchronized void register(String name, int priority, double minAmps, double maxAmps, CANMotor... motors) {
+        consumerList.add(new Consumer(name, priority, minAmps, maxAmps, motors));
+        consumerList.sort(Comparator.comparingInt((Consumer consumer) -> consumer.priority).reversed());
+        consumers = consumerList.toArray(new Consumer[0]);
+    }
+
+    /** Registers every motor of a group, see {@link #register(String, int, double, double, CANMotor...)}. */
+    public void register(String name, int priority, double minAmps, double maxAmps, CANMotorGroup group) {
+        register(name, priority, minAmps, maxAmps, group.getMotors());
+    }
+
+    /** Updates the battery estimate, reallocates the budget and requests the new limits, call once per loop. */
+    public void periodic() {
+        Consumer[] current = consumers;
+
+        supplyCurrent = 0.0;
+
+        for (Consumer consumer : current) {
+            for (CANMotor motor : consumer.motors) {
+                supplyCurrent += motor.getSupplyCurrent();
+            }
+        }
+
+        double voltage = RobotController.getBatteryVoltage();
+        estimate(voltage, supplyCurrent + reserveCurrent);
+
+        budget = Math.max(0.0, (openCircuitVoltage - targetVoltage) / resistance - reserveCurrent);
+        allocate(current, budget);
+
+        for (Consumer consumer : current) {
+            for (CANMotor motor : consumer.motors) {
+                motor.requestCurrentLimit(consumer.limit);
+            }
+
+            Logger.recordOutput(consumer.limitKey, consumer.limit);
+        }
+
+        Logger.recordOutput("PowerGovernor/OpenCircuitVoltage", openCircuitVoltage);
+        Logger.recordOutput("PowerGovernor/BatteryResistance", resistance);
+        Logger.recordOutput("PowerGovernor/SupplyCurrent", supplyCurrent);
+        Logger.recordOutput("PowerGovernor/Budget", budget);
+    }
+
+    /** One recursive least squares step of {@code V = Voc - R * I}, with exponential forgetting. */
+    private void estimate(double voltage, double current) {
+        double x0 = 1.0, x1 = -current;
+
+        double px0 = p00 * x0 + p01 * x1;
+        double px1 = p01 * x0 + p11 * x1;
+        double denominator = FORGETTING_FACTOR + x0 * px0 + x1 * px1;
+
+        double k0 = px0 / denominator;
+        double k1 = px1 / denominator;
+        double error = voltage - (openCircuitVoltage * x0 + resistance * x1);
+
+        openCircuitVoltage += k0 * error;
+        resistance += k1 * error;
+
+        p00 = (p00 - k0 * px0) / FORGETTING_FACTOR;
+        p01 = (p01 - k0 * px1) / FORGETTING_FACTOR;
+        p11 = (p11 - k1 * px1) / FORGETTING_FACTOR;
+
+        // Forgetting winds the covariance up while the current is steady, bound it (keeping it positive definite)
+        p00 = Math.min(p00, 100.0);
+        p11 = Math.min(p11, 1.0);
+        p01 = Math.max(-Math.sqrt(p00 * p11), Math.min(Math.sqrt(p00 * p11), p01));
+
+        // Without current swings resistance is unobservable, keep it physical
+        resistance = Math.max(MIN_RESISTANCE, Math.min(MAX_RESISTANCE, resistance));
+    }
+
+    private static void allocate(Consumer[] consumers, double budget) {
+        double remaining = budget;
+
+        for (Consumer consumer : consumers) {
+            consumer.limit = consumer.minAmps;
+            remaining -= consumer.minAmps * consumer.motors.length;
+        }
+
+        int start = 0;
+
+        while (start < consumers.length && remaining > 0.0) {
+            int end = start;
+            double headroom = 0.0;
+
+            // Consumers are sorted by priority, share between the ones tied at this priority
+            while (end < consumers.length && consumers[end].priority == consumers[start].priority) {
+                headroom += (consumers[end].maxAmps - consumers[end].minAmps) * consumers[end].motors.length;
+                end++;
+            }
+
+            double share = headroom <= 0.0 ? 0.0 : Math.min(1.0, remaining / headroom);
+
+            for (int i = start; i < end; i++) {
+                consumers[i].limit += (consumers[i].maxAmps - consumers[i].minAmps) * share;
+            }
+
+            remaining -= headroom * share;
+            start = end;
+        }
+    }
+
+    /** Supply current of every registered motor during the last loop. */
+    public double getSupplyCurrent() {
+        return supplyCurrent;
+    }
+
+    public double getBatteryResistance() {
+        return resistance;
+    }
+
+    public double getOpenCircuitVoltage() {
+        return openCircuitVoltage;
+    }
+
+    /** Current the registered motors may draw, as of the last loop. */
+    public double getBudget() {
+        return budget;
+    }
+}
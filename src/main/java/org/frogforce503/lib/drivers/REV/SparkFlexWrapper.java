@@ -1,16 +1,29 @@
 package org.frogforce503.lib.drivers.REV;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.frogforce503.lib.drivers.BaseMotorWrapper;
+import org.frogforce503.lib.drivers.CANTrafficCounter;
+import org.frogforce503.lib.drivers.CANTrafficCounter.Read;
 import org.frogforce503.lib.drivers.CANMotor.MotorControlMode;
+import org.frogforce503.lib.drivers.MotorConfigCache;
+import org.frogforce503.lib.drivers.MotorConfigMirror;
+import org.frogforce503.lib.drivers.MotorSample;
+import org.frogforce503.lib.drivers.MotorConfigWorker;
+import org.frogforce503.lib.drivers.REV.SparkSignalCache.Signal;
 
+import com.revrobotics.REVLibError;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.spark.ClosedLoopSlot;
+import com.revrobotics.spark.SparkBase;
 import com.revrobotics.spark.SparkClosedLoopController;
 import com.revrobotics.spark.SparkFlex;
 import com.revrobotics.spark.config.ClosedLoopConfig;
 import com.revrobotics.spark.config.ClosedLoopConfig.FeedbackSensor;
 import com.revrobotics.spark.config.ClosedLoopConfigAccessor;
 import com.revrobotics.spark.config.EncoderConfig;
+import com.revrobotics.spark.config.SignalsConfig;
 import com.revrobotics.spark.config.ExternalEncoderConfig;
 import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 import com.revrobotics.spark.config.SparkFlexConfig;
@@ -32,16 +45,35 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
     protected ControlType mLastControlMode = ControlType.kDutyCycle;
     protected ClosedLoopSlot mSlotID = ClosedLoopSlot.kSlot0;
 
+    private double feedbackPeriod = 0.020;
+
+    private final GravityType[] gravityTypes = new GravityType[4];
+    private final double[] gravityKG = new double[4];
+
     protected SparkFlexConfig motorConfig;
     protected ClosedLoopConfig pidConfig;
     protected EncoderConfig encoderConfig;
+    private final MotorConfigMirror mirror = new MotorConfigMirror();
 
     protected RelativeEncoder encoder;
     protected SparkClosedLoopController pidController;
 
+    protected final SparkSignalCache signalCache;
+
+    private final String configCacheKey;
+
+    private final String name;
+    private final CANTrafficCounter traffic;
+
     public SparkFlexWrapper(int deviceNumber, MotorType motorType, boolean hasExternalEncoder) {
         super(deviceNumber, motorType);
 
+        configCacheKey = "SparkFlex-" + deviceNumber;
+
+        name = "SparkFlex-" + deviceNumber;
+        traffic = new CANTrafficCounter("", name);
+        traffic.setStatusFrameRate(statusFramesPerSecond(10, 20, 250));
+
         motorConfig = new SparkFlexConfig();
         pidController = this.getClosedLoopController();
         pidConfig = motorConfig.closedLoop;
@@ -69,6 +101,13 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
         pidConfig.outputRange(-1, 1, ClosedLoopSlot.kSlot2);
         pidConfig.outputRange(-1, 1, ClosedLoopSlot.kSlot3);
 
+        signalCache = new SparkSignalCache(deviceNumber);
+        signalCache.setReader(Signal.POSITION, () -> encoder.getPosition());
+        signalCache.setReader(Signal.VELOCITY, () -> encoder.getVelocity());
+        signalCache.setReader(Signal.APPLIED_OUTPUT, super::getAppliedOutput);
+        signalCache.setReader(Signal.OUTPUT_CURRENT, super::getOutputCurrent);
+        signalCache.setReader(Signal.TEMPERATURE, super::getMotorTemperature);
+
         this.clearFaults();
     }
 
@@ -80,12 +119,13 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
         return this.motorConfig;
     }
     
-    public void applyConfig(ResetMode resetMode, PersistMode persistMode) {
+    public REVLibError applyConfig(ResetMode resetMode, PersistMode persistMode) {
         motorConfig
             .apply(pidConfig)
             .apply(encoderConfig);
 
-        this.configure(motorConfig, resetMode, persistMode);
+        recordConfigWrite(persistMode);
+        return this.configure(motorConfig, resetMode, persistMode);
     }
 
     /**
@@ -107,14 +147,82 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
     public void applyMotorConfig(boolean shouldFactoryDefault, boolean shouldBurnConfig) {
         applyConfig(
             shouldFactoryDefault ? ResetMode.kResetSafeParameters : ResetMode.kNoResetSafeParameters,
-            shouldBurnConfig ? PersistMode.kPersistParameters : PersistMode.kPersistParameters
+            shouldBurnConfig ? PersistMode.kPersistParameters : PersistMode.kNoPersistParameters
         );
     }
 
+    /**
+     * Queues a snapshot of the current configuration on the {@link MotorConfigWorker} instead of blocking the caller.
+     * Safe parameters are never reset, and flash is only written when {@code shouldBurnConfig} is true.
+     */
+    @Override
+    public CompletableFuture<REVLibError> applyMotorConfigAsync(boolean shouldBurnConfig) {
+        motorConfig
+            .apply(pidConfig)
+            .apply(encoderConfig);
+
+        SparkFlexConfig snapshot = new SparkFlexConfig();
+        snapshot.apply(motorConfig);
+
+        // One queue entry per device, a persist queued before this snapshot is carried over to it
+        return MotorConfigWorker.getInstance().submit(
+            this,
+            "config",
+            shouldBurnConfig,
+            persist -> {
+                PersistMode persistMode = persist ? PersistMode.kPersistParameters : PersistMode.kNoPersistParameters;
+
+                REVLibError error = this.configure(snapshot, ResetMode.kNoResetSafeParameters, persistMode);
+                recordConfigWrite(persistMode);
+
+                // Only what is in flash survives a reboot, so only persisted configs count as applied
+                if (persist && error == REVLibError.kOk) {
+                    MotorConfigCache.getInstance().markApplied(configCacheKey, snapshot.flatten());
+                }
+
+                return error;
+            }
+        );
+    }
+
+    /**
+     * Resets safe parameters, applies the configuration and burns it to flash (same as {@code applyMotorConfig(true, true)}),
+     * but only if it differs from the last configuration applied to this device.
+     *
+     * @return If the device now holds the configuration (unchanged, or pushed successfully)
+     */
+    @Override
+    public boolean applyMotorConfigIfChanged() {
+        motorConfig
+            .apply(pidConfig)
+            .apply(encoderConfig);
+
+        MotorConfigCache cache = MotorConfigCache.getInstance();
+        String serialized = motorConfig.flatten();
+
+        if (!cache.hasChanged(configCacheKey, serialized)) {
+            cache.recordSkipped(configCacheKey);
+            return true;
+        }
+
+        boolean ok = applyConfig(ResetMode.kResetSafeParameters, PersistMode.kPersistParameters) == REVLibError.kOk;
+
+        if (ok) {
+            cache.markApplied(configCacheKey, serialized);
+        }
+
+        cache.recordPushed(configCacheKey);
+        return ok;
+    }
+
     @Override
     public void set(MotorControlMode CANMotorMode, double value, double arbFF) {
         ControlType mode = BaseMotorWrapper.revModes.get(CANMotorMode);
 
+        if (mode != ControlType.kDutyCycle && mode != ControlType.kVoltage) {
+            arbFF += gravityFeedforward(); // REV has no gravity term on the controller, it rides on the arbitrary feedforward
+        }
+
         if (value != mLastSet || mode != mLastControlMode || arbFF != mLastFF) {
             mLastSet = value;
             mLastControlMode = mode;
@@ -134,15 +242,24 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
                     pidController.setReference(value, ControlType.kVelocity, mSlotID, arbFF);
                     break;
                 case kMAXMotionPositionControl:
-                    pidController.setReference(value, ControlType.kMAXMotionPositionControl, mSlotID);
+                    pidController.setReference(value, ControlType.kMAXMotionPositionControl, mSlotID, arbFF);
                     break;
                 case kMAXMotionVelocityControl:
-                    pidController.setReference(value, ControlType.kMAXMotionVelocityControl, mSlotID);
+                    pidController.setReference(value, ControlType.kMAXMotionVelocityControl, mSlotID, arbFF);
                     break;
             }
+
+            traffic.recordSetpoint();
+        } else {
+            traffic.recordSkippedSetpoint();
         }
     }
 
+    @Override
+    public void forceNextSet() {
+        mLastSet = Double.NaN;
+    }
+
     public void set(MotorControlMode mode, double value) {
         set(mode, value, 0.0);
     }
@@ -161,33 +278,77 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
         mSlotID = intToRevSlot(slotID);
     }
 
+    /** Reads the closed loop config from the device, prefer the gain getters which are served from the mirror. */
     public ClosedLoopConfigAccessor getPIDController() {
         return this.configAccessor.closedLoop;
     }
 
     @Override
     public double getP(int slot) {
-        return getPIDController().getP(intToRevSlot(slot));
+        return mirror.getP(slot);
     }
 
     @Override
     public double getI(int slot) {
-        return getPIDController().getI(intToRevSlot(slot));
+        return mirror.getI(slot);
     }
 
     @Override
     public double getD(int slot) {
-        return getPIDController().getD(intToRevSlot(slot));
+        return mirror.getD(slot);
     }
 
     @Override
     public double getF(int slot) {
-        return getPIDController().getFF(intToRevSlot(slot));
+        return mirror.getF(slot);
     }
 
     @Override
     public void setPIDF(int slotID, double kP, double kI, double kD, double kFF) {
         pidConfig.pidf(kP, kI, kD, kFF, intToRevSlot(slotID));
+        mirror.setGains(slotID, kP, kI, kD, kFF);
+    }
+
+    @Override
+    public MotorConfigMirror getConfigMirror() {
+        return mirror;
+    }
+
+    /** Reads every mirrored parameter through the config accessor, one request per parameter. */
+    @Override
+    public CompletableFuture<List<String>> verifyAgainstDevice() {
+        return mirror.verify(this, name, () -> {
+            MotorConfigMirror readBack = mirror.copy();
+            traffic.recordConfigRead();
+
+            for (int slot = 0; slot < MotorConfigMirror.SLOT_COUNT; slot++) {
+                ClosedLoopSlot revSlot = intToRevSlot(slot);
+                ClosedLoopConfigAccessor closedLoop = configAccessor.closedLoop;
+
+                readBack.setGains(slot, closedLoop.getP(revSlot), closedLoop.getI(revSlot), closedLoop.getD(revSlot), closedLoop.getFF(revSlot));
+                readBack.setProfile(
+                    slot,
+                    closedLoop.maxMotion.getMaxVelocity(revSlot),
+                    closedLoop.maxMotion.getMaxAcceleration(revSlot),
+                    closedLoop.maxMotion.getAllowedClosedLoopError(revSlot)
+                );
+            }
+
+            readBack.setCurrentLimit(configAccessor.getSmartCurrentLimit());
+            readBack.setCoast(configAccessor.getIdleMode() == IdleMode.kCoast);
+
+            if (this.hasExternalEncoder) {
+                readBack.setPositionFactor(configAccessor.externalEncoder.getPositionConversionFactor());
+                readBack.setVelocityFactor(configAccessor.externalEncoder.getVelocityConversionFactor());
+                readBack.setInverted(configAccessor.externalEncoder.getInverted());
+            } else {
+                readBack.setPositionFactor(configAccessor.encoder.getPositionConversionFactor());
+                readBack.setVelocityFactor(configAccessor.encoder.getVelocityConversionFactor());
+                readBack.setInverted(configAccessor.getInverted());
+            }
+
+            return readBack;
+        });
     }
 
     public void setIzone(ClosedLoopSlot slotID, double kIz) {
@@ -198,7 +359,30 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
         pidConfig.maxMotion
             .maxAcceleration(maxAcc, slotID)
             .maxVelocity(maxVel, slotID)
-            .allowedClosedLoopError(maxAcc, slotID);
+            .allowedClosedLoopError(allowedError, slotID);
+
+        mirror.setProfile(slotID.value, maxVel, maxAcc, allowedError);
+    }
+
+    /**
+     * Sets the gravity feedforward of a slot, in volts like the arbitrary feedforward. It is computed here from the
+     * cached encoder position and sent with every closed loop setpoint, since REV has no gravity term on the controller.
+     */
+    @Override
+    public void configureGravity(int slotID, GravityType type, double kG) {
+        gravityTypes[slotID] = type;
+        gravityKG[slotID] = kG;
+    }
+
+    private double gravityFeedforward() {
+        int slot = mSlotID.value;
+
+        if (gravityKG[slot] == 0.0)
+            return 0.0;
+
+        return gravityTypes[slot] == GravityType.Arm
+            ? gravityKG[slot] * Math.cos(2 * Math.PI * getEncoderPosition())
+            : gravityKG[slot];
     }
 
     @Override
@@ -208,6 +392,7 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
 
     public void setIdleMode(IdleMode mode) {
         motorConfig.idleMode(mode);
+        mirror.setCoast(mode == IdleMode.kCoast);
     }
 
     @Override
@@ -217,7 +402,7 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
 
     @Override
     public String getIdleMode() {
-        return this.configAccessor.getIdleMode() + "";
+        return (mirror.isCoast() ? IdleMode.kCoast : IdleMode.kBrake) + "";
     }
 
     @Override
@@ -231,10 +416,32 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
         } else {
             motorConfig.inverted(invert);
         }
+
+        mirror.setInverted(invert);
     }
 
     public void setCurrentLimit(int limit) {
         motorConfig.smartCurrentLimit(limit);
+        mirror.setCurrentLimit(limit);
+    }
+
+    /** Smart current limit, rounded to whole amps. */
+    @Override
+    public void setCurrentLimit(double amps) {
+        setCurrentLimit((int) Math.round(amps));
+    }
+
+    /** Pushes a config holding only the smart current limit, nothing is reset or persisted. */
+    @Override
+    public CompletableFuture<REVLibError> applyCurrentLimitAsync() {
+        SparkFlexConfig limitOnly = new SparkFlexConfig();
+        limitOnly.smartCurrentLimit((int) mirror.getCurrentLimit());
+
+        return MotorConfigWorker.getInstance().submit(this, "currentLimit", () -> {
+            REVLibError error = this.configure(limitOnly, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+            recordConfigWrite(PersistMode.kNoPersistParameters);
+            return error;
+        });
     }
 
     public void follow(SparkFlexWrapper mainMotor, boolean invert) {
@@ -245,17 +452,33 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
         follow(mainMotor, false);
     }
 
+    @Override
+    public void follow(BaseMotorWrapper leader, boolean opposeLeader) {
+        if (!(leader instanceof SparkBase))
+            throw new IllegalArgumentException("A Spark can only follow another Spark, not " + leader.getClass().getSimpleName());
+
+        // Follow mode is a config setting on REV, persisted so the follower still follows after a brownout
+        motorConfig.follow((SparkBase) leader, opposeLeader);
+        applyMotorConfigAsync(true);
+    }
+
+    /** Encoder used for feedback (internal or external), for reads that must bypass the per-loop cache. */
+    public RelativeEncoder getFeedbackEncoder() {
+        return encoder;
+    }
+
     public double getEncoderPosition() {
-        return encoder.getPosition();
+        return signalCache.get(Signal.POSITION);
     }
 
     public double getEncoderVelocity() {
-        return encoder.getVelocity();
+        return signalCache.get(Signal.VELOCITY);
     }
 
     @Override
     public void setEncoderPosition(double position) {
         encoder.setPosition(position);
+        signalCache.invalidate(Signal.POSITION);
     }
 
     public void resetEncoder() {
@@ -272,6 +495,8 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
         } else {
             encoderConfig.positionConversionFactor(factor);
         }
+
+        mirror.setPositionFactor(factor);
     }
 
     public void setVelocityConversionFactor(double factor) {
@@ -284,6 +509,8 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
         } else {
             encoderConfig.velocityConversionFactor(factor);
         }
+
+        mirror.setVelocityFactor(factor);
     }
 
     @Override
@@ -301,22 +528,64 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
 
     @Override
     public double getMotorPercent() {
-        return this.getAppliedOutput();
+        traffic.recordRead(Read.OUTPUT);
+        return signalCache.get(Signal.APPLIED_OUTPUT);
     }
 
     @Override
     public double getMotorPosition() {
+        traffic.recordRead(Read.POSITION);
         return getEncoderPosition();
     }
 
     @Override
     public double getMotorVelocity() {
+        traffic.recordRead(Read.VELOCITY);
         return getEncoderVelocity();
     }
 
+    /**
+     * REV frames carry no timestamp, the measurement is assumed half a feedback frame old. It is read straight from
+     * the encoder, past the per-loop cache, so that age is counted from now and not from an earlier read. Velocity is
+     * converted to position units per second through the configured conversion factors (raw velocity is RPM).
+     */
+    @Override
+    public void sample(MotorSample out) {
+        traffic.recordRead(Read.POSITION);
+        traffic.recordRead(Read.VELOCITY);
+
+        double velocity = encoder.getVelocity();
+        double positionPerSecond = velocity / mirror.getVelocityFactor() * mirror.getPositionFactor() / 60.0;
+        out.set(encoder.getPosition(), velocity, feedbackPeriod / 2.0, positionPerSecond);
+    }
+
+    @Override
+    public double getOutputCurrent() {
+        traffic.recordRead(Read.CURRENT);
+        return signalCache.get(Signal.OUTPUT_CURRENT);
+    }
+
     @Override
     public double getTemperature() {
-        return this.getMotorTemperature();
+        traffic.recordRead(Read.TEMPERATURE);
+        return signalCache.get(Signal.TEMPERATURE);
+    }
+
+    @Override
+    public double getBusVoltage() {
+        traffic.recordRead(Read.BUS_VOLTAGE);
+        return super.getBusVoltage();
+    }
+
+    @Override
+    public int getFaultBits() {
+        traffic.recordRead(Read.FAULTS);
+        return super.getFaults().rawBits;
+    }
+
+    /** Fraction of this device's signal reads served from the per-loop cache. */
+    public double getCacheHitRate() {
+        return signalCache.getHitRate();
     }
 
     // Utility methods
@@ -335,40 +604,111 @@ public class SparkFlexWrapper extends SparkFlex implements BaseMotorWrapper {
         throw new RuntimeException("Error returned from SparkFlexWrapper intToRevSlot() --- slot ID invalid");
     }
 
+    // -------------------------- CAN Utilization Profiles -------------------------- //
 
+    protected CANProfile mLastCANProfile = CANProfile.Default;
+    protected double mFeedbackRateFloor = 0.0;
+
+    @Override
+    public CANProfile getCANProfile() {
+        return mLastCANProfile;
+    }
 
-    // -------------------------- CAN Utilization Profiles (Doesn't work, but has potential to minimize CAN Bus usage) -------------------------- //
-
-    // protected CANProfile mLastCANProfile = CANProfile.Default;
-
-    // public void setCANProfile(CANProfile profile) {
-    //     if (profile != mLastCANProfile) {
-    //         mLastCANProfile = profile;
-    //         switch (profile) {
-    //             case Low: // Low Profiles for minimal CAN utilization
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 40);
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 250);
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus2, 250);
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 250);
-    //                 break;
-    //             case Idle: // Idle Profile for CAN utilization(Call when leaving a motor in idle but may
-    //                        // call again soon)
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 100);
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus2, 100);
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 250);
-    //                 break;
-    //             case Default: // Default Update Rates
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 10);
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 20);
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus2, 20);
-    //                 super.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 50);
-    //                 break;
-    //         }
-    //     }
-    // }
-
-    // public enum CANProfile {
-    //     Low, Idle, Default
-    // }
+    @Override
+    public void setCANProfile(CANProfile profile) {
+        if (profile != mLastCANProfile) {
+            mLastCANProfile = profile;
+            applyCANProfile();
+        }
+    }
+
+    @Override
+    public double getFeedbackRateFloor() {
+        return mFeedbackRateFloor;
+    }
+
+    @Override
+    public void setFeedbackRateFloor(double hz) {
+        if (hz != mFeedbackRateFloor) {
+            mFeedbackRateFloor = hz;
+            applyCANProfile();
+        }
+    }
+
+    private void applyCANProfile() {
+        switch (mLastCANProfile) {
+            case Low: // Low Profiles for minimal CAN utilization
+                applyStatusPeriods(40, 250, 500);
+                break;
+            case Idle: // Idle Profile for CAN utilization(Call when leaving a motor in idle but may
+                       // call again soon)
+                applyStatusPeriods(20, 100, 250);
+                break;
+            case Default: // Default Update Rates
+                applyStatusPeriods(10, 20, 250);
+                break;
+        }
+    }
+
+    /**
+     * Pushes new status frame periods without resetting or persisting anything else.
+     *
+     * @param outputMs Period of the applied output, current, temperature and bus voltage signals
+     * @param feedbackMs Period of the encoder position and velocity signals, shortened to the feedback rate floor
+     * @param faultsMs Period of the faults and warnings signals
+     */
+    private void applyStatusPeriods(int outputMs, int feedbackMs, int faultsMs) {
+        if (mFeedbackRateFloor > 0.0) {
+            feedbackMs = Math.max(1, Math.min(feedbackMs, (int) (1000.0 / mFeedbackRateFloor)));
+        }
+
+        SparkFlexConfig periodsOnly = new SparkFlexConfig();
+
+        setStatusPeriods(periodsOnly.signals, outputMs, feedbackMs, faultsMs);
+        setStatusPeriods(motorConfig.signals, outputMs, feedbackMs, faultsMs); // keeps later full applies from undoing the profile
+
+        this.configureAsync(periodsOnly, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+
+        traffic.recordConfigApply();
+        traffic.setStatusFrameRate(statusFramesPerSecond(outputMs, feedbackMs, faultsMs));
+        feedbackPeriod = feedbackMs / 1000.0;
+    }
+
+    /** Applied output and the current/temperature frame at the output period, position and velocity together, faults and warnings together. */
+    private static double statusFramesPerSecond(int outputMs, int feedbackMs, int faultsMs) {
+        return 2 * 1000.0 / outputMs + 1000.0 / feedbackMs + 1000.0 / faultsMs;
+    }
+
+    private void recordConfigWrite(PersistMode persistMode) {
+        traffic.recordConfigApply();
+
+        if (persistMode == PersistMode.kPersistParameters) {
+            traffic.recordFlashBurn();
+        }
+    }
+
+    @Override
+    public CANTrafficCounter getTraffic() {
+        return traffic;
+    }
+
+    private void setStatusPeriods(SignalsConfig signals, int outputMs, int feedbackMs, int faultsMs) {
+        signals
+            .appliedOutputPeriodMs(outputMs)
+            .outputCurrentPeriodMs(outputMs)
+            .motorTemperaturePeriodMs(outputMs)
+            .busVoltagePeriodMs(outputMs)
+            .faultsPeriodMs(faultsMs)
+            .warningsPeriodMs(faultsMs);
+
+        if (this.hasExternalEncoder) {
+            signals
+                .externalOrAltEncoderPosition(feedbackMs)
+                .externalOrAltEncoderVelocity(feedbackMs);
+        } else {
+            signals
+                .primaryEncoderPositionPeriodMs(feedbackMs)
+                .primaryEncoderVelocityPeriodMs(feedbackMs);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package org.frogforce503.lib.drivers.REV;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Read-through cache for the Spark getters that go through JNI. Each signal is read from the
+ * device at most once per robot loop, every later call in the same loop is served from the cache.
+ *
+ * @implNote {@link #advanceCycle()} must be called once per loop, before anything reads motor state.
+ */
+public class SparkSignalCache {
+    // Copy-on-write so devices can be constructed concurrently by DeviceBringup
+    private static final CopyOnWriteArrayList<SparkSignalCache> caches = new CopyOnWriteArrayList<SparkSignalCache>();
+    private static long cycle = 0;
+
+    public enum Signal {
+        POSITION,
+        VELOCITY,
+        APPLIED_OUTPUT,
+        OUTPUT_CURRENT,
+        TEMPERATURE
+    }
+
+    private static final int SIGNAL_COUNT = Signal.values().length;
+
+    private final String hitRateKey;
+
+    private final DoubleSupplier[] readers = new DoubleSupplier[SIGNAL_COUNT];
+    private final double[] values = new double[SIGNAL_COUNT];
+    private final long[] readCycles = new long[SIGNAL_COUNT];
+
+    private long hits = 0;
+    private long misses = 0;
+
+    SparkSignalCache(int deviceID) {
+        this.hitRateKey = "SparkSignalCache/" + deviceID + "/HitRate";
+
+        for (int i = 0; i < SIGNAL_COUNT; i++) {
+            readCycles[i] = -1;
+        }
+
+        caches.add(this);
+    }
+
+    /** Sets the JNI read behind a signal, must be called for every signal before it is read. */
+    void setReader(Signal signal, DoubleSupplier reader) {
+        readers[signal.ordinal()] = reader;
+    }
+
+    /** Returns the value read this loop, reading it from the device first if this is the first call. */
+    double get(Signal signal) {
+        int i = signal.ordinal();
+
+        if (readCycles[i] == cycle) {
+            hits++;
+        } else {
+            values[i] = readers[i].getAsDouble();
+            readCycles[i] = cycle;
+            misses++;
+        }
+
+        return values[i];
+    }
+
+    /** Forces the next read of a signal to go to the device, e.g. after the encoder position is reset. */
+    void invalidate(Signal signal) {
+        readCycles[signal.ordinal()] = -1;
+    }
+
+    /** Fraction of reads served from the cache since startup. */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /** Starts a new loop, invalidating every cached value, and logs each device's hit rate. */
+    public static void advanceCycle() {
+        cycle++;
+
+        for (int i = 0; i < caches.size(); i++) {
+            SparkSignalCache cache = caches.get(i);
+            Logger.recordOutput(cache.hitRateKey, cache.getHitRate());
+        }
+    }
+}
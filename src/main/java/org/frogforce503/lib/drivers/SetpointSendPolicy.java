@@ -0,0 +1,120 @@
+package org.frogforce503.lib.drivers;
+
+import org.frogforce503.lib.drivers.CANMotor.MotorControlMode;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Decides which setpoints of a {@link CANMotor} are worth a CAN frame. A setpoint is sent when the control mode
+ * changes, when it goes to zero (stopping is never rounded away or delayed), or when it moved more than the mode's
+ * epsilon away from the last one sent. A changed setpoint that comes sooner than the minimum resend interval is held
+ * and sent by {@link CANMotorDispatcher#flush()} once the interval passed, unless a newer one replaced it. An
+ * unchanged setpoint is resent once per keep-alive period.
+ * <p>
+ * The default policy (no epsilon, no interval, no keep-alive) only suppresses exact repeats. Each motor has its
+ * own policy, since it remembers what was last sent:
+ *
+ * <pre>
+ * shooter.getSendPolicy()
+ *     .withEpsilon(MotorControlMode.Velocity, 10.0)
+ *     .withMinResendInterval(0.04)
+ *     .withKeepAlive(0.5);
+ * </pre>
+ */
+public class SetpointSendPolicy {
+    public enum Decision {
+        /** Close enough to what the motor controller already has. */
+        SUPPRESS,
+        SEND,
+        /** Unchanged, but resent because the keep-alive period elapsed. */
+        KEEP_ALIVE,
+        /** Changed, but too soon after the last frame, to be sent once the minimum resend interval passed. */
+        HOLD
+    }
+
+    private final double[] epsilons = new double[MotorControlMode.values().length];
+    private double feedforwardEpsilon = 0.0;
+    private double minResendInterval = 0.0;
+    private double keepAlivePeriod = 0.0;
+
+    private boolean hasSent = false;
+    private MotorControlMode sentMode;
+    private double sentValue;
+    private double sentFF;
+    private double sentTime;
+    private double decisionTime;
+
+    private long sentCount = 0;
+    private long suppressedCount = 0;
+
+    /** Changes smaller than {@code epsilon} (in the mode's units) are not sent. */
+    public SetpointSendPolicy withEpsilon(MotorControlMode mode, double epsilon) {
+        epsilons[mode.ordinal()] = epsilon;
+        return this;
+    }
+
+    /** Changes in arbitrary feedforward smaller than {@code epsilon} are not sent. */
+    public SetpointSendPolicy withFeedforwardEpsilon(double epsilon) {
+        this.feedforwardEpsilon = epsilon;
+        return this;
+    }
+
+    /** A changed setpoint in the same mode is held until {@code seconds} passed since the last frame, then sent. */
+    public SetpointSendPolicy withMinResendInterval(double seconds) {
+        this.minResendInterval = seconds;
+        return this;
+    }
+
+    /** An unchanged setpoint is resent every {@code seconds} while {@code set} keeps being called, 0 to disable. */
+    public SetpointSendPolicy withKeepAlive(double seconds) {
+        this.keepAlivePeriod = seconds;
+        return this;
+    }
+
+    /** Decides whether a requested setpoint should be sent, call {@link #recordSent} when it was. */
+    public Decision decide(MotorControlMode mode, double value, double arbFF) {
+        // Only read the clock when a time based rule is configured
+        decisionTime = (minResendInterval > 0.0 || keepAlivePeriod > 0.0) ? Timer.getFPGATimestamp() : 0.0;
+
+        if (!hasSent || mode != sentMode)
+            return Decision.SEND;
+
+        // Going to neutral is never within epsilon or held back, a motor must not be left running on the last value
+        if (value == 0.0 && arbFF == 0.0 && (sentValue != 0.0 || sentFF != 0.0))
+            return Decision.SEND;
+
+        boolean changed = Math.abs(value - sentValue) > epsilons[mode.ordinal()]
+            || Math.abs(arbFF - sentFF) > feedforwardEpsilon;
+
+        if (changed) {
+            return decisionTime - sentTime >= minResendInterval ? Decision.SEND : Decision.HOLD;
+        } else if (keepAlivePeriod > 0.0 && decisionTime - sentTime >= keepAlivePeriod) {
+            return Decision.KEEP_ALIVE;
+        }
+
+        suppressedCount++;
+        return Decision.SUPPRESS;
+    }
+
+    void recordSent(MotorControlMode mode, double value, double arbFF) {
+        hasSent = true;
+        sentMode = mode;
+        sentValue = value;
+        sentFF = arbFF;
+        sentTime = decisionTime;
+        sentCount++;
+    }
+
+    /** Forgets the last sent setpoint, so the next one is sent no matter what. */
+    public void reset() {
+        hasSent = false;
+    }
+
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+}
@@ -0,0 +1,131 @@
+package org.frogforce503.lib.drivers;
+
+import java.util.ArrayList;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Reads motor telemetry at the rate it actually changes instead of every loop. Each polled signal is given a
+ * {@link Tier}, and signals in the slower tiers are spread over the loops of their period round-robin, so no
+ * single loop pays for every device's slow reads. Consumers keep the returned {@link PolledSignal} and read
+ * its latest value and age whenever they like.
+ *
+ * <pre>
+ * PolledSignal armTemperature = armMotor.poll(Signal.TEMPERATURE, Tier.TWO_HZ);
+ * ...
+ * inputs.temperature = armTemperature.getValue();
+ * </pre>
+ *
+ * @implNote {@link #periodic()} must be called once per loop, after the vendor signals are refreshed.
+ */
+public class SignalPoller {
+    private static final SignalPoller instance = new SignalPoller();
+
+    public enum Tier {
+        LOOP(1),    // 50 Hz
+        TEN_HZ(5),
+        TWO_HZ(25);
+
+        private final int periodLoops;
+
+        Tier(int periodLoops) {
+            this.periodLoops = periodLoops;
+        }
+    }
+
+    public enum Signal {
+        POSITION,
+        VELOCITY,
+        OUTPUT,
+        CURRENT,
+        TEMPERATURE,
+        BUS_VOLTAGE,
+        /** Active fault bits of the motor controller, in its vendor's layout. */
+        FAULTS
+    }
+
+    /** Latest value of a polled signal, refreshed by the poller at the rate of its tier. */
+    public static class PolledSignal {
+        private final DoubleSupplier reader;
+        private final int periodLoops;
+        private final int phase;
+
+        private double value = 0.0;
+        private double timestamp = Double.NaN;
+
+        private PolledSignal(DoubleSupplier reader, int periodLoops, int phase) {
+            this.reader = reader;
+            this.periodLoops = periodLoops;
+            this.phase = phase;
+        }
+
+        private void read(double now) {
+            value = reader.getAsDouble();
+            timestamp = now;
+        }
+
+        /** Latest value read, 0 until the first read. */
+        public double getValue() {
+            return value;
+        }
+
+        /** FPGA timestamp of the latest read, NaN until the first read. */
+        public double getTimestamp() {
+            return timestamp;
+        }
+
+        /** Seconds since the latest read, infinite until the first read. */
+        public double getAge() {
+            return Double.isNaN(timestamp) ? Double.POSITIVE_INFINITY : Timer.getFPGATimestamp() - timestamp;
+        }
+
+        public boolean hasValue() {
+            return !Double.isNaN(timestamp);
+        }
+    }
+
+    private final ArrayList<PolledSignal> signalList = new ArrayList<PolledSignal>();
+    private final int[] registeredPerTier = new int[Tier.values().length];
+
+    private volatile PolledSignal[] signals = new PolledSignal[0];
+    private long loop = 0;
+
+    private SignalPoller() {}
+
+    public static SignalPoller getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts polling a reader at the rate of a tier. Use {@link CANMotor#poll} for motor signals.
+     *
+     * @return Holder of the latest value, read for the first time on the next {@link #periodic()} of its phase
+     */
+    public synchronized PolledSignal register(DoubleSupplier reader, Tier tier) {
+        // Consecutive registrations in a tier land on consecutive loops of its period
+        int phase = registeredPerTier[tier.ordinal()]++ % tier.periodLoops;
+
+        PolledSignal signal = new PolledSignal(reader, tier.periodLoops, phase);
+        signalList.add(signal);
+        signals = signalList.toArray(new PolledSignal[0]);
+
+        return signal;
+    }
+
+    /** Reads every signal that is due this loop. */
+    public void periodic() {
+        PolledSignal[] current = signals;
+        double now = Timer.getFPGATimestamp();
+
+        for (int i = 0; i < current.length; i++) {
+            PolledSignal signal = current[i];
+
+            if (loop % signal.periodLoops == signal.phase || !signal.hasValue()) {
+                signal.read(now);
+            }
+        }
+
+        loop++;
+    }
+}
@@ -0,0 +1,322 @@
+package org.frogforce503.lib.drivers;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import org.frogforce503.lib.drivers.CANMotor.CANMotorType;
+import org.frogforce503.lib.drivers.CANMotor.MotorControlMode;
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+/**
+ * System identification runs on a single {@link CANMotor}: quasistatic voltage ramps and dynamic voltage steps,
+ * recording voltage, position, velocity and timestamp at up to 1 kHz into preallocated primitive buffers. The buffers
+ * are only written to a CSV file (under {@code sysid/} in the operating directory) once the run is over.
+ * <p>
+ * On the robot a dedicated thread samples the motor directly, bypassing the per-loop caches, and resends the voltage
+ * at 100 Hz straight to the motor controller, past batching and the send policy. The motor's feedback frames are
+ * raised to the sample rate for the run and put back to its CAN profile afterwards. In simulation the capture
+ * integrates the motor's plant itself, one sample at a time, so the samples fall between loops like they would on
+ * the robot.
+ *
+ * <pre>
+ * SysIdCapture capture = elevatorMotor.sysIdCapture("Elevator").withRampRate(0.5);
+ * controller.a().whileTrue(capture.command(Test.QUASISTATIC_FORWARD, elevator));
+ * </pre>
+ *
+ * @implNote Nothing else may command the motor while a capture runs, its {@code set} is ignored until the capture
+ * stops. Samples are only as fresh as the motor controller's feedback frames, REV and TalonSRX samples are stamped
+ * half a frame period back since their frames carry no timestamp.
+ */
+public class SysIdCapture {
+    private static final double COMMAND_PERIOD = 0.01;
+    private static final double NOMINAL_VOLTAGE = 12.0; // TalonSRX is driven in percent output
+
+    public enum Test {
+        QUASISTATIC_FORWARD(true, 1.0),
+        QUASISTATIC_REVERSE(true, -1.0),
+        DYNAMIC_FORWARD(false, 1.0),
+        DYNAMIC_REVERSE(false, -1.0);
+
+        private final boolean quasistatic;
+        private final double direction;
+
+        Test(boolean quasistatic, double direction) {
+            this.quasistatic = quasistatic;
+            this.direction = direction;
+        }
+    }
+
+    private final String name;
+    private final CANMotor motor;
+    private final double sampleRateHz;
+    private final double maxSeconds;
+    private final boolean simulated;
+
+    private double rampRate = 1.0;     // volts per second
+    private double stepVoltage = 7.0;
+
+    private final double[] timestamps;
+    private final double[] voltages;
+    private final double[] positions;
+    private final double[] velocities;
+    private volatile int count = 0;
+
+    private MotorSampler.Source source;
+    private Notifier notifier;
+    private final Object lock = new Object(); // held by the sampling callback, so stop() never races it
+    private double previousFeedbackRateFloor;
+    private boolean wasBatched;
+    private boolean ownsMotor = false;
+
+    private volatile boolean running = false;
+    private Test test = Test.QUASISTATIC_FORWARD;
+    private double startTime;
+    private double nextSampleTime;
+    private double lastCommandTime;
+
+    /**
+     * @param name Name of the mechanism, used for the file name and the {@code SysId/} log key
+     * @param sampleRateHz Samples per second, at most 1000
+     * @param maxSeconds Length of the longest run, sizes the buffers
+     */
+    public SysIdCapture(String name, CANMotor motor, double sampleRateHz, double maxSeconds) {
+        this.name = name;
+        this.motor = motor;
+        this.sampleRateHz = Math.min(sampleRateHz, 1000.0);
+        this.maxSeconds = maxSeconds;
+        this.simulated = RobotBase.isSimulation() && motor.sim != null;
+
+        int capacity = (int) Math.ceil(maxSeconds * this.sampleRateHz) + 1;
+        timestamps = new double[capacity];
+        voltages = new double[capacity];
+        positions = new double[capacity];
+        velocities = new double[capacity];
+    }
+
+    public SysIdCapture(String name, CANMotor motor) {
+        this(name, motor, 1000.0, 15.0);
+    }
+
+    /** Voltage ramp rate of the quasistatic tests, in volts per second. */
+    public SysIdCapture withRampRate(double voltsPerSecond) {
+        this.rampRate = voltsPerSecond;
+        return this;
+    }
+
+    /** Voltage of the dynamic tests' step. */
+    public SysIdCapture withStepVoltage(double volts) {
+        this.stepVoltage = volts;
+        return this;
+    }
+
+    /** Starts a run, overwriting the samples of the previous one. */
+    public void start(Test test) {
+        if (running)
+            return;
+
+        this.test = test;
+        this.count = 0;
+
+        // Also in simulation, where a subsystem's set() would otherwise override the capture voltage between samples.
+        // A run that ended on its own still owns the motor until stop().
+        if (!ownsMotor) {
+            previousFeedbackRateFloor = motor.getFeedbackRateFloor();
+            motor.setFeedbackRateFloor(Math.max(previousFeedbackRateFloor, sampleRateHz));
+
+            wasBatched = motor.isBatched();
+            motor.beginDirectControl();
+            ownsMotor = true;
+        }
+
+        if (simulated) {
+            motor.sim.update(); // bring the plant up to now before taking it over
+            motor.setSimOwnedByCapture(true);
+
+            startTime = CANMotorSim.getClockTime();
+            nextSampleTime = startTime;
+            running = true;
+            return;
+        }
+
+        if (notifier == null) {
+            source = MotorSampler.createSource(motor);
+            notifier = new Notifier(this::sampleDevice);
+            notifier.setName("SysIdCapture-" + name);
+        }
+
+        startTime = Timer.getFPGATimestamp();
+        lastCommandTime = Double.NEGATIVE_INFINITY;
+        running = true;
+        notifier.startPeriodic(1.0 / sampleRateHz);
+    }
+
+    /** Integrates the simulated plant sample by sample up to now, call every loop while running. No-op on the robot. */
+    public void periodic() {
+        if (!simulated || !running)
+            return;
+
+        double now = CANMotorSim.getClockTime();
+        double period = 1.0 / sampleRateHz;
+
+        while (running && nextSampleTime <= now) {
+            double elapsed = nextSampleTime - startTime;
+            double volts = voltageAt(elapsed);
+
+            // The state at this sample comes from the previous voltage, the new one applies until the next sample
+            motor.sim.updateTo(nextSampleTime);
+            record(nextSampleTime, volts, motor.sim.getPosition(), motor.sim.getVelocity());
+            motor.sim.set(MotorControlMode.Voltage, volts, 0.0);
+
+            nextSampleTime += period;
+
+            if (count == timestamps.length || elapsed >= maxSeconds)
+                running = false;
+        }
+    }
+
+    private void sampleDevice() {
+        synchronized (lock) {
+            if (!running)
+                return;
+
+            double now = Timer.getFPGATimestamp();
+            double elapsed = now - startTime;
+
+            if (count == timestamps.length || elapsed >= maxSeconds) {
+                running = false;
+                command(0.0);
+                return;
+            }
+
+            double volts = voltageAt(elapsed);
+
+            if (now - lastCommandTime >= COMMAND_PERIOD) {
+                command(volts);
+                lastCommandTime = now;
+            }
+
+            source.refresh();
+            record(now - source.latency(), volts, source.readPosition(), source.readVelocity());
+        }
+    }
+
+    private double voltageAt(double elapsed) {
+        return test.direction * (test.quasistatic ? rampRate * elapsed : stepVoltage);
+    }
+
+    private void command(double volts) {
+        if (motor.getMotorType() == CANMotorType.TALON_SRX) {
+            motor.setDirect(MotorControlMode.PercentOutput, volts / NOMINAL_VOLTAGE);
+        } else {
+            motor.setDirect(MotorControlMode.Voltage, volts);
+        }
+    }
+
+    private void record(double timestamp, double volts, double position, double velocity) {
+        int i = count;
+
+        timestamps[i] = timestamp;
+        voltages[i] = volts;
+        positions[i] = position;
+        velocities[i] = velocity;
+
+        count = i + 1; // volatile write publishes the sample
+    }
+
+    /** Ends the run (if it did not end on its own) and stops the motor. */
+    public void stop() {
+        // Waits out a callback in progress, none can command the motor after this
+        synchronized (lock) {
+            running = false;
+        }
+
+        if (notifier != null)
+            notifier.stop();
+
+        if (simulated)
+            motor.setSimOwnedByCapture(false);
+
+        if (ownsMotor) {
+            ownsMotor = false;
+            motor.endDirectControl();
+            motor.set(MotorControlMode.PercentOutput, 0.0); // before batching is restored, so it goes out now
+
+            motor.setFeedbackRateFloor(previousFeedbackRateFloor);
+            motor.setBatched(wasBatched);
+        } else {
+            motor.set(MotorControlMode.PercentOutput, 0.0);
+        }
+
+        Logger.recordOutput("SysId/" + name + "/Samples", count);
+    }
+
+    /** If the run ended, either stopped or out of time or buffer. */
+    public boolean isFinished() {
+        return !running;
+    }
+
+    public int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Writes the samples of the last run to a CSV file off the main loop. The samples are copied first, so a new
+     * run may start right away.
+     *
+     * @return Future completed with the written file
+     */
+    public CompletableFuture<File> flush() {
+        int n = count;
+        double[] t = Arrays.copyOf(timestamps, n);
+        double[] v = Arrays.copyOf(voltages, n);
+        double[] p = Arrays.copyOf(positions, n);
+        double[] w = Arrays.copyOf(velocities, n);
+
+        File file = new File(new File(Filesystem.getOperatingDirectory(), "sysid"),
+            name + "-" + test.name().toLowerCase() + "-" + System.currentTimeMillis() + ".csv");
+
+        return CompletableFuture.supplyAsync(() -> {
+            file.getParentFile().mkdirs();
+
+            try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+                out.println("timestamp,voltage,position,velocity");
+
+                for (int i = 0; i < n; i++) {
+                    out.println(t[i] + "," + v[i] + "," + p[i] + "," + w[i]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return file;
+        });
+    }
+
+    /** Runs a test until it is interrupted or out of time, then stops the motor and writes the samples. */
+    public Command command(Test test, Subsystem... requirements) {
+        return new FunctionalCommand(
+            () -> start(test),
+            this::periodic,
+            interrupted -> {
+                stop();
+                flush();
+            },
+            this::isFinished,
+            requirements
+        ).withName("SysId " + name + " " + test.name());
+    }
+}
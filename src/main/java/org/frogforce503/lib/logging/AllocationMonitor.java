@@ -0,0 +1,102 @@
+package org.frogforce503.lib.logging;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import org.littletonrobotics.junction.Logger;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures how many bytes the main thread allocates per loop (and per section of the loop, like the
+ * command scheduler or a single subsystem's periodic), and how long the garbage collector paused since
+ * the last loop. Everything is logged next to the loop time so a new source of garbage shows up in the
+ * log of the first match it caused overruns in.
+ *
+ * <pre>
+ * long start = AllocationMonitor.getInstance().mark();
+ * ...
+ * AllocationMonitor.getInstance().record("Allocation/Something", start);
+ * </pre>
+ */
+public class AllocationMonitor {
+    private static final AllocationMonitor instance = new AllocationMonitor();
+
+    private final ThreadMXBean threadBean;
+    private final boolean supported;
+
+    private final AtomicLong gcPauseMicros = new AtomicLong();
+    private final AtomicInteger gcCount = new AtomicInteger();
+    private long totalGcCount = 0;
+
+    private long loopStartBytes = 0;
+    private long loopStartNanos = 0;
+
+    private AllocationMonitor() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof ThreadMXBean && ((ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+            supported = true;
+        } else {
+            threadBean = null;
+            supported = false;
+        }
+
+        // GC notifications arrive on a JMX thread, they are only accumulated here and logged by the main loop
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                    if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION))
+                        return;
+
+                    GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    gcPauseMicros.addAndGet(info.getGcInfo().getDuration() * 1000);
+                    gcCount.incrementAndGet();
+                }, null, null);
+            }
+        }
+    }
+
+    public static AllocationMonitor getInstance() {
+        return instance;
+    }
+
+    /** Bytes allocated by the calling thread so far, pass it to {@link #record} at the end of the measured section. */
+    public long mark() {
+        return supported ? threadBean.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /** Logs the bytes allocated by the calling thread since {@code startBytes} under {@code key}. */
+    public void record(String key, long startBytes) {
+        if (supported) {
+            Logger.recordOutput(key, threadBean.getCurrentThreadAllocatedBytes() - startBytes);
+        }
+    }
+
+    /** Starts measuring a loop, call first thing in {@code robotPeriodic}. */
+    public void beginLoop() {
+        loopStartNanos = System.nanoTime();
+        loopStartBytes = mark();
+    }
+
+    /** Logs the loop's allocations, time, and the GC pauses since the last loop, call last thing in {@code robotPeriodic}. */
+    public void endLoop() {
+        record("Allocation/LoopBytes", loopStartBytes);
+        Logger.recordOutput("Allocation/LoopTimeMS", (System.nanoTime() - loopStartNanos) / 1e6);
+
+        int collections = gcCount.getAndSet(0);
+        totalGcCount += collections;
+
+        Logger.recordOutput("GC/PauseMS", gcPauseMicros.getAndSet(0) / 1000.0);
+        Logger.recordOutput("GC/Collections", collections);
+        Logger.recordOutput("GC/TotalCollections", totalGcCount);
+    }
+}
@@ -1,7 +1,7 @@
 package org.frogforce503.lib.math;
 
-import java.util.HashMap;
-import java.util.TreeSet;
+import java.util.Arrays;
+
 import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
 
 /**
@@ -12,6 +12,9 @@ import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
  * <p>
  * ( Due to not using matrices or using any complex calculations )
  * <p>
+ * Points are kept in sorted primitive arrays, so a lookup is a binary search and never allocates. Keys outside the
+ * dataset take the value of the nearest end point.
+ * <p>
  * <b> NOTE: THIS IS ONLY AN APPROXIMATION OF A POLYNOMIAL REGRESSION. </b>
  * <p>
  * If you need a more accurate model, use the {@code PolynomialRegression} class. Know that it will take more time, though.
@@ -19,50 +22,83 @@ import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
  * @author Anish Malraj
  */
 public class FastPolynomialRegression {
-  public HashMap<Double, Double> m_map = new HashMap<Double, Double>();
-  public TreeSet<Double> sortedKeys = new TreeSet<Double>();
+  private double[] keys;
+  private double[] values;
+  private int size = 0;
 
   public FastPolynomialRegression(double[][] pts) {
+    keys = new double[Math.max(pts.length, 4)];
+    values = new double[keys.length];
+
     for (int i = 0; i < pts.length; i++) {
-      m_map.put(pts[i][0], pts[i][1]);
-      sortedKeys.add(pts[i][0]);
+      put(pts[i][0], pts[i][1]);
     }
   }
 
-  /** Puts a single point into the dataset. */
+  /** Puts a single point into the dataset, replacing the value of an existing key. */
   public void put(double key, double value) {
-    m_map.put(key, value);
+    int index = Arrays.binarySearch(keys, 0, size, key);
+
+    if (index >= 0) {
+      values[index] = value;
+      return;
+    }
+
+    int insertion = -(index + 1);
+
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+
+    System.arraycopy(keys, insertion, keys, insertion + 1, size - insertion);
+    System.arraycopy(values, insertion, values, insertion + 1, size - insertion);
+
+    keys[insertion] = key;
+    values[insertion] = value;
+    size++;
   }
 
-  /** Gets the associated value from {@code m_map} for the given key. */
+  /**
+   * Gets the value for the given key, interpolated linearly between the two nearest points.
+   *
+   * @return the value, or {@code NaN} if the dataset is empty
+   */
   public double get(double key) {
-    if (m_map.containsKey(key)) {
-      return m_map.get(key);
+    if (size == 0) {
+      return Double.NaN;
     }
 
-    InterpolatingDoubleTreeMap res = new InterpolatingDoubleTreeMap();
+    int index = Arrays.binarySearch(keys, 0, size, key);
 
-    Double lower = sortedKeys.lower(key);
-    Double upper = sortedKeys.higher(key);
+    if (index >= 0) {
+      return values[index];
+    }
 
-    try {
-      res.put(lower, m_map.get(lower));
-    } catch (NullPointerException e) {
-      res.put(sortedKeys.first(), m_map.get(sortedKeys.first()));
+    int upper = -(index + 1);
+
+    if (upper == 0) {
+      return values[0];
     }
 
-    try {
-      res.put(upper, m_map.get(upper));
-    } catch (NullPointerException e) {
-      res.put(sortedKeys.last(), m_map.get(sortedKeys.last()));
+    if (upper == size) {
+      return values[size - 1];
     }
 
-    return res.get(key);
+    int lower = upper - 1;
+    double t = (key - keys[lower]) / (keys[upper] - keys[lower]);
+
+    return values[lower] + (values[upper] - values[lower]) * t;
+  }
+
+  /** Number of points in the dataset. */
+  public int size() {
+    return size;
   }
 
   /** Clears the contents. */
   public void clear() {
-    m_map.clear();
+    size = 0;
   }
 
   /**
@@ -0,0 +1,270 @@
+package org.frogforce503.lib.math;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IncrementalPolynomialRegression} class fits the same least squares polynomial as
+ * {@code PolynomialRegression}, but takes its data points one at a time. It only keeps the power
+ * sums of the normal equations (&Sigma; <em>x<sup>k</sup></em> and &Sigma; <em>x<sup>k</sup> y</em>),
+ * so adding or removing a point is O(<em>d</em>) and refitting is a Cholesky solve of a
+ * (<em>d</em>+1) x (<em>d</em>+1) system, microseconds for the degrees used on the robot. Nothing
+ * allocates after construction.
+ * <p>
+ * Like {@code PolynomialRegression}, the degree is reduced until the system has full rank, e.g. when
+ * there are fewer distinct points than coefficients. The coefficients are plain {@code double}s and
+ * {@link #predict} is a straight Horner loop.
+ * <p>
+ * Solving the normal equations squares the condition number, keep the predictor within a few orders
+ * of magnitude of 1 (meters, not millimeters) and the degree low.
+ *
+ * <pre>
+ * IncrementalPolynomialRegression shotMap = new IncrementalPolynomialRegression(2);
+ * shotMap.addPoint(distance, angle); // e.g. from the dashboard in the pits
+ * double angle = shotMap.predict(distance);
+ * </pre>
+ */
+public class IncrementalPolynomialRegression {
+  private static final double RANK_TOLERANCE = 1E-10; // pivot relative to its diagonal
+
+  private final int maxDegree;
+  private int degree;
+  private int count = 0;
+
+  private final double[] powerSums; // sum of x^k, k = 0..2d
+  private final double[] momentSums; // sum of x^k y, k = 0..d
+  private double sumY = 0.0;
+  private double sumYY = 0.0;
+
+  private final double[] cholesky; // lower triangle, row major
+  private final double[] work;
+  private final double[] beta;
+
+  /**
+   * @param degree the highest degree of the polynomial to fit
+   */
+  public IncrementalPolynomialRegression(int degree) {
+    this.maxDegree = degree;
+    this.degree = 0;
+
+    int m = degree + 1;
+    powerSums = new double[2 * degree + 1];
+    momentSums = new double[m];
+    cholesky = new double[m * m];
+    work = new double[m];
+    beta = new double[m];
+  }
+
+  /**
+   * Fits the data points {@code (y[i], x[i])}, more can be added afterwards.
+   *
+   * @throws IllegalArgumentException if the lengths of the two arrays are not equal
+   */
+  public IncrementalPolynomialRegression(double[] x, double[] y, int degree) {
+    this(degree);
+
+    if (x.length != y.length)
+      throw new IllegalArgumentException("array lengths are not equal");
+
+    for (int i = 0; i < x.length; i++)
+      accumulate(x[i], y[i], 1.0);
+
+    fit();
+  }
+
+  /** Adds a data point and refits. */
+  public void addPoint(double x, double y) {
+    accumulate(x, y, 1.0);
+    fit();
+  }
+
+  /** Removes a previously added data point (e.g. a bad shot) and refits. */
+  public void removePoint(double x, double y) {
+    accumulate(x, y, -1.0);
+    fit();
+  }
+
+  /** Removes every data point. */
+  public void clear() {
+    Arrays.fill(powerSums, 0.0);
+    Arrays.fill(momentSums, 0.0);
+    sumY = 0.0;
+    sumYY = 0.0;
+    count = 0;
+    fit();
+  }
+
+  private void accumulate(double x, double y, double sign) {
+    double power = sign;
+
+    for (int k = 0; k < powerSums.length; k++) {
+      powerSums[k] += power;
+
+      if (k < momentSums.length)
+        momentSums[k] += power * y;
+
+      power *= x;
+    }
+
+    sumY += sign * y;
+    sumYY += sign * y * y;
+    count += (int) sign;
+  }
+
+  /** Solves the normal equations, reducing the degree until they have full rank. */
+  private void fit() {
+    Arrays.fill(beta, 0.0);
+
+    for (degree = maxDegree; degree >= 0; degree--) {
+      if (solve(degree + 1))
+        return;
+    }
+
+    degree = 0; // no data, the fit is 0
+  }
+
+  private boolean solve(int m) {
+    int stride = maxDegree + 1;
+
+    // Cholesky factorization of the Hankel matrix G[i][j] = sum of x^(i + j)
+    for (int i = 0; i < m; i++) {
+      for (int j = 0; j <= i; j++) {
+        double sum = powerSums[i + j];
+
+        for (int p = 0; p < j; p++)
+          sum -= cholesky[i * stride + p] * cholesky[j * stride + p];
+
+        if (i == j) {
+          if (sum <= RANK_TOLERANCE * powerSums[2 * i])
+            return false;
+
+          cholesky[i * stride + i] = Math.sqrt(sum);
+        } else {
+          cholesky[i * stride + j] = sum / cholesky[j * stride + j];
+        }
+      }
+    }
+
+    // forward substitution L z = b
+    for (int i = 0; i < m; i++) {
+      double sum = momentSums[i];
+
+      for (int p = 0; p < i; p++)
+        sum -= cholesky[i * stride + p] * work[p];
+
+      work[i] = sum / cholesky[i * stride + i];
+    }
+
+    // back substitution L^T beta = z
+    for (int i = m - 1; i >= 0; i--) {
+      double sum = work[i];
+
+      for (int p = i + 1; p < m; p++)
+        sum -= cholesky[p * stride + i] * beta[p];
+
+      beta[i] = sum / cholesky[i * stride + i];
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the expected response {@code y} given the value of the predictor variable {@code x}.
+   *
+   * @param x the value of the predictor variable
+   * @return the expected response {@code y} given the value of the predictor variable {@code x}
+   */
+  public double predict(double x) {
+    // horner's method, coefficients above the fitted degree are 0
+    double y = 0.0;
+    for (int j = beta.length - 1; j >= 0; j--)
+      y = beta[j] + (x * y);
+    return y;
+  }
+
+  /**
+   * Returns the {@code j}th regression coefficient.
+   *
+   * @param j the index
+   * @return the {@code j}th regression coefficient
+   */
+  public double beta(int j) {
+    return beta[j];
+  }
+
+  /**
+   * Copies the regression coefficients, lowest degree first, into {@code out}.
+   *
+   * @return {@code out}
+   */
+  public double[] getCoefficients(double[] out) {
+    System.arraycopy(beta, 0, out, 0, beta.length);
+    return out;
+  }
+
+  /** Returns a copy of the regression coefficients, lowest degree first. */
+  public double[] getCoefficients() {
+    return getCoefficients(new double[beta.length]);
+  }
+
+  /**
+   * Returns the degree of the fitted polynomial, lower than requested while there are too few
+   * distinct points.
+   *
+   * @return the degree of the fitted polynomial
+   */
+  public int degree() {
+    return degree;
+  }
+
+  /** Returns the number of data points. */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Returns the coefficient of determination <em>R</em><sup>2</sup>, from the power sums.
+   *
+   * @return the coefficient of determination <em>R</em><sup>2</sup>, which is a real number between
+   *         0 and 1
+   */
+  public double R2() {
+    if (count == 0)
+      return 1.0;
+
+    double sst = sumYY - sumY * sumY / count;
+    if (sst <= 0.0)
+      return 1.0; // constant function
+
+    // sse = sum of y^2 - 2 beta . b + beta^T G beta
+    double sse = sumYY;
+    for (int i = 0; i <= degree; i++) {
+      sse -= 2.0 * beta[i] * momentSums[i];
+
+      for (int j = 0; j <= degree; j++)
+        sse += beta[i] * beta[j] * powerSums[i + j];
+    }
+
+    return 1.0 - Math.max(0.0, sse) / sst;
+  }
+
+  /**
+   * Unit tests the {@code IncrementalPolynomialRegression} data type against
+   * {@code PolynomialRegression}.
+   *
+   * @param args the command-line arguments
+   */
+  public static void main(String[] args) {
+    double[] x = {10, 20, 40, 80, 160, 200};
+    double[] y = {100, 350, 1500, 6700, 20160, 40000};
+
+    IncrementalPolynomialRegression incremental = new IncrementalPolynomialRegression(3);
+    for (int i = 0; i < x.length; i++)
+      incremental.addPoint(x[i], y[i]);
+
+    PolynomialRegression regression = new PolynomialRegression(x, y, 3);
+
+    System.out.println(regression);
+    System.out.println(Arrays.toString(incremental.getCoefficients()) + "  (R^2 = "
+        + String.format("%.3f", incremental.R2()) + ")");
+  }
+}
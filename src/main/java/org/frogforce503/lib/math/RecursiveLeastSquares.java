@@ -0,0 +1,146 @@
+package org.frogforce503.lib.math;
+
+/**
+ * Recursive least squares estimate of the parameters &theta; of a linear model <em>y</em> = &theta; &middot;
+ * <em>x</em>, updated one observation at a time with exponential forgetting so the estimate follows parameters
+ * that drift. Every update is O(<em>n</em><sup>2</sup>) in the (small, fixed) number of parameters and works
+ * in preallocated arrays, so it can run every loop without allocating.
+ * <p>
+ * Also tracks a forgetting-weighted residual variance, so each parameter comes with a standard deviation.
+ */
+public class RecursiveLeastSquares {
+  private final int n;
+  private final double forgettingFactor;
+  private final double initialCovariance;
+  private final double maxCovariance;
+
+  private final double[] theta;
+  private final double[] p; // covariance, row major n x n
+  private final double[] px;
+  private final double[] gain;
+
+  private double residualVariance = 0.0;
+  private double weight = 0.0;
+  private long updates = 0;
+
+  /**
+   * @param parameters number of parameters in the model
+   * @param forgettingFactor weight of past observations per update, 1 to never forget (0.99 to 0.999 is typical)
+   * @param initialCovariance initial variance of every parameter, large for a weak prior
+   */
+  public RecursiveLeastSquares(int parameters, double forgettingFactor, double initialCovariance) {
+    this.n = parameters;
+    this.forgettingFactor = forgettingFactor;
+    this.initialCovariance = initialCovariance;
+    this.maxCovariance = initialCovariance; // forgetting without excitation must not wind up past the prior
+
+    theta = new double[n];
+    p = new double[n * n];
+    px = new double[n];
+    gain = new double[n];
+
+    reset();
+  }
+
+  /** Forgets every observation, the parameters go back to zero. */
+  public void reset() {
+    for (int i = 0; i < n; i++) {
+      theta[i] = 0.0;
+
+      for (int j = 0; j < n; j++) {
+        p[i * n + j] = i == j ? initialCovariance : 0.0;
+      }
+    }
+
+    residualVariance = 0.0;
+    weight = 0.0;
+    updates = 0;
+  }
+
+  /** Sets a parameter's current estimate, e.g. from a previous fit, without changing its covariance. */
+  public void setParameter(int i, double value) {
+    theta[i] = value;
+  }
+
+  /**
+   * Adds one observation.
+   *
+   * @param x regressor, {@code parameters} long, only read
+   * @param y observed response
+   */
+  public void update(double[] x, double y) {
+    double denominator = forgettingFactor;
+
+    for (int i = 0; i < n; i++) {
+      double sum = 0.0;
+
+      for (int j = 0; j < n; j++) {
+        sum += p[i * n + j] * x[j];
+      }
+
+      px[i] = sum;
+      denominator += x[i] * sum;
+    }
+
+    double error = y - predict(x);
+
+    for (int i = 0; i < n; i++) {
+      gain[i] = px[i] / denominator;
+      theta[i] += gain[i] * error;
+    }
+
+    // P = (P - K (P x)^T) / lambda, kept symmetric by updating both halves from the upper one
+    for (int i = 0; i < n; i++) {
+      for (int j = i; j < n; j++) {
+        double value = (p[i * n + j] - gain[i] * px[j]) / forgettingFactor;
+        p[i * n + j] = value;
+        p[j * n + i] = value;
+      }
+
+      if (p[i * n + i] > maxCovariance) {
+        scaleRowAndColumn(i, Math.sqrt(maxCovariance / p[i * n + i]));
+      }
+    }
+
+    weight = forgettingFactor * weight + 1.0;
+    residualVariance += (error * error - residualVariance) / weight;
+    updates++;
+  }
+
+  private void scaleRowAndColumn(int i, double scale) {
+    // Congruence scaling keeps P positive definite
+    for (int j = 0; j < n; j++) {
+      p[i * n + j] *= scale;
+      p[j * n + i] *= scale;
+    }
+  }
+
+  /** Model response for a regressor with the current parameters. */
+  public double predict(double[] x) {
+    double sum = 0.0;
+
+    for (int i = 0; i < n; i++) {
+      sum += theta[i] * x[i];
+    }
+
+    return sum;
+  }
+
+  public double getParameter(int i) {
+    return theta[i];
+  }
+
+  /** Standard deviation of a parameter, from its covariance scaled by the residual variance. */
+  public double getStandardDeviation(int i) {
+    return Math.sqrt(Math.max(0.0, p[i * n + i] * residualVariance));
+  }
+
+  /** Forgetting-weighted variance of the prediction errors. */
+  public double getResidualVariance() {
+    return residualVariance;
+  }
+
+  public long getUpdateCount() {
+    return updates;
+  }
+}
@@ -1,16 +1,28 @@
 package org.frogforce503.lib.subsystem;
 
+import org.frogforce503.lib.logging.AllocationMonitor;
+
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 /** Thin wrapper around WPILib's {@link FFSubsystemBase} class to create command-based subsystems with common FF boilerplate methods */
 public abstract class FFSubsystemBase extends SubsystemBase {
+    private final String allocationKey = "Allocation/Subsystems/" + getName();
+
+    /** Runs {@link #onPeriodic()} and logs the bytes it allocated under {@code Allocation/Subsystems/<name>}. */
     @Override
-    public abstract void periodic();
+    public final void periodic() {
+        long startBytes = AllocationMonitor.getInstance().mark();
+        onPeriodic();
+        AllocationMonitor.getInstance().record(allocationKey, startBytes);
+    }
+
+    /** The subsystem's periodic work, called once per scheduler run. */
+    protected abstract void onPeriodic();
 
     public abstract boolean atGoal();
 
     public abstract Command off();
     public abstract Command idle();
     public abstract Command setToPreset();
-}
\ No newline at end of file
+}
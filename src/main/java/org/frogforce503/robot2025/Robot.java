@@ -9,11 +9,25 @@ import edu.wpi.first.wpilibj.IterativeRobotBase;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.Watchdog;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 
 import java.lang.reflect.Field;
 
+import org.frogforce503.lib.drivers.CANMotorDispatcher;
+import org.frogforce503.lib.drivers.CANMotorSim;
+import org.frogforce503.lib.drivers.CANTrafficMonitor;
+import org.frogforce503.lib.drivers.DeviceBringup;
+import org.frogforce503.lib.drivers.MotorConfigCache;
+import org.frogforce503.lib.drivers.MotorSampler;
+import org.frogforce503.lib.drivers.MotorThermalMonitor;
+import org.frogforce503.lib.drivers.PowerGovernor;
+import org.frogforce503.lib.drivers.SignalPoller;
+import org.frogforce503.lib.drivers.CTRE.TalonFXSignalRegistry;
+import org.frogforce503.lib.drivers.REV.SparkSignalCache;
+import org.frogforce503.lib.logging.AllocationMonitor;
 import org.frogforce503.robot2025.fields.FieldConfig;
 import org.frogforce503.robot2025.fields.FieldConfig.VENUE;
 import org.littletonrobotics.junction.LoggedRobot;
@@ -29,9 +43,12 @@ import org.littletonrobotics.junction.wpilog.WPILOGWriter;
  */
 public class Robot extends LoggedRobot {
   private static final double loopOverrunWarningTimeout = 0.2;
+  private static final double deviceBringupDeadline = 3.0;
 
 
   private static Timer timer = new Timer();
+
+  private double simTime = 0.0;
   
   /*
    * Robot Constructor 
@@ -56,6 +73,7 @@ public class Robot extends LoggedRobot {
         Logger.addDataReceiver(new WPILOGWriter());
     } else { // REPLAY
         setUseTiming(false); // Run as fast as possible
+        CANMotorSim.setClock(() -> simTime); // Motor sims advance one period per loop instead of following the wall clock
         // String logPath = LogFileUtil.findReplayLog(); // Pull the replay log from AdvantageScope (or prompt the user)
         // Logger.setReplaySource(new WPILOGReader(logPath)); // Read replay log
         // Logger.addDataReceiver(new WPILOGWriter(LogFileUtil.addPathSuffix(logPath, "_sim"))); // Save outputs to a new log
@@ -66,6 +84,15 @@ public class Robot extends LoggedRobot {
     RobotContainer.init();
     Logger.start();
 
+    // Wait for every device queued on DeviceBringup during init to be constructed and configured
+    DeviceBringup.getInstance().awaitAll(deviceBringupDeadline);
+
+    // Start high rate sampling of every motor registered during init
+    MotorSampler.getInstance().start();
+
+    // Save the config hashes of every motor configured during init and report what was pushed vs. skipped
+    MotorConfigCache.getInstance().saveAndReport();
+
     // Adjust loop overrun warning timeout
     try {
       Field watchdogField = IterativeRobotBase.class.getDeclaredField("m_watchdog");
@@ -88,8 +115,27 @@ public class Robot extends LoggedRobot {
 
   @Override
   public void robotPeriodic() {
+    AllocationMonitor.getInstance().beginLoop();
+
     // SignalLogger.enableAutoLogging(false); // use and see if works
+    TalonFXSignalRegistry.getInstance().refreshAll();
+    SparkSignalCache.advanceCycle();
+    SignalPoller.getInstance().periodic();
+    MotorSampler.getInstance().periodic();
+
+    long schedulerStartBytes = AllocationMonitor.getInstance().mark();
     CommandScheduler.getInstance().run();
+    AllocationMonitor.getInstance().record("Allocation/CommandSchedulerBytes", schedulerStartBytes);
+
+    // Send batched motor setpoints once every command has had its say this loop
+    CANMotorDispatcher.getInstance().flush();
+
+    // Resize current limits to what the battery can deliver right now and what the windings can take
+    MotorThermalMonitor.getInstance().periodic();
+    PowerGovernor.getInstance().periodic();
+    CANTrafficMonitor.getInstance().periodic();
+
+    AllocationMonitor.getInstance().endLoop();
   }
 
   @Override
@@ -134,5 +180,10 @@ public class Robot extends LoggedRobot {
   public void simulationInit() {}
 
   @Override
-  public void simulationPeriodic() {}
+  public void simulationPeriodic() {
+    simTime += getPeriod();
+
+    // Sag the simulated battery under the governed motors' load, so the governor has something to estimate
+    RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(PowerGovernor.getInstance().getSupplyCurrent()));
+  }
 }
\ No newline at end of file
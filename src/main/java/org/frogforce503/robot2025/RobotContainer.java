@@ -5,6 +5,8 @@ import java.util.Map;
 import java.util.function.BooleanSupplier;
 
 import org.frogforce503.robot2025.auto.AutoChooser;
+import org.frogforce503.robot2025.subsystems.arm.Arm;
+import org.frogforce503.robot2025.subsystems.arm.ArmIOSpark;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.wpilibj2.command.Command;
@@ -22,6 +24,9 @@ public class RobotContainer{
 
   // Needs
   public static final AutoChooser autoChooser = new AutoChooser();
+
+  // Subsystems
+  public static final Arm arm = new Arm(new ArmIOSpark<>());
   
   // Other Hardware
   // public static final PowerDistribution powerDistribution = new PowerDistribution();
@@ -33,6 +33,10 @@ public class AutoChooser {
     StartingLocation lastStartingSide = null;
     String lastRoutine = "";
 
+    private final HashMap<String, Supplier<Command>> routines = new HashMap<String, Supplier<Command>>();
+    private Supplier<Pose2d> poseSupplier = Pose2d::new;
+    private boolean autoStarted = false;
+
     public AutoChooser() {
         
     }
@@ -43,9 +47,52 @@ public class AutoChooser {
     public void startAuto() {
         if (this.selectedAutoCommand != null) {
             this.selectedAutoCommand.schedule();
+            this.autoStarted = true;
         }
     }
 
+    /** Adds a routine to choose from, the supplier builds it for the selected alliance and starting location. */
+    public void registerRoutine(String name, Supplier<Command> routine) {
+        routines.put(name, routine);
+    }
+
+    public List<String> getRoutineNames() {
+        return routines.keySet().stream().sorted().toList();
+    }
+
+    /** Selects a routine without the dashboard, used by headless runs like {@code AutoRegressionRunner}. */
+    public void select(String routine, AllianceColor color, StartingLocation startingLocation) {
+        RobotStatus.getInstance().overrideAllianceColor(color);
+
+        this.lastAllianceColor = color;
+        this.lastStartingSide = startingLocation;
+        this.lastRoutine = routine;
+
+        this.selectedAutoCommand = routines.containsKey(routine) ? routines.get(routine).get() : Commands.none();
+        this.selectedAutoName = routine;
+        this.autoStarted = false;
+
+        Logger.recordOutput("AutoChooser/SelectedAuto", selectedAutoName);
+    }
+
+    public StartingLocation getStartingLocation() {
+        return lastStartingSide;
+    }
+
+    /** If the selected routine was started and has since ended (or was interrupted). */
+    public boolean isAutoFinished() {
+        return autoStarted && (selectedAutoCommand == null || !selectedAutoCommand.isScheduled());
+    }
+
+    /** Sets where the robot pose comes from for reporting, usually the drivetrain's odometry. */
+    public void setPoseSupplier(Supplier<Pose2d> poseSupplier) {
+        this.poseSupplier = poseSupplier;
+    }
+
+    public Pose2d getPose() {
+        return poseSupplier.get();
+    }
+
     public void cleanup() {
 
     }
@@ -0,0 +1,47 @@
+package org.frogforce503.robot2025.subsystems.arm;
+
+import org.frogforce503.lib.subsystem.FFSubsystemBase;
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj2.command.Command;
+
+public class Arm extends FFSubsystemBase {
+    private static final double STOW_RADIANS = 0.0;
+    private static final double TOLERANCE_RADIANS = 0.05;
+
+    private final ArmIO io;
+    private final ArmIOInputsAutoLogged inputs = new ArmIOInputsAutoLogged();
+
+    private double goalRadians = STOW_RADIANS;
+
+    public Arm(ArmIO io) {
+        this.io = io;
+    }
+
+    @Override
+    protected void onPeriodic() {
+        io.updateInputs(inputs);
+        Logger.processInputs("Arm", inputs);
+    }
+
+    @Override
+    public boolean atGoal() {
+        return Math.abs(inputs.data.positionRadians() - goalRadians) < TOLERANCE_RADIANS;
+    }
+
+    @Override
+    public Command off() {
+        return runOnce(io::stop);
+    }
+
+    /** Holds the arm at its current goal. */
+    @Override
+    public Command idle() {
+        return run(() -> io.setPosition(goalRadians));
+    }
+
+    @Override
+    public Command setToPreset() {
+        return runOnce(() -> goalRadians = STOW_RADIANS).andThen(idle());
+    }
+}
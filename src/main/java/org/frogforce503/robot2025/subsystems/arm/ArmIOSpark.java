@@ -3,6 +3,9 @@ package org.frogforce503.robot2025.subsystems.arm;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 
+import org.frogforce503.lib.drivers.SignalPoller;
+import org.frogforce503.lib.drivers.SignalPoller.PolledSignal;
+import org.frogforce503.lib.drivers.SignalPoller.Tier;
 import org.frogforce503.robot2025.subsystems.arm.ArmIO.ArmIOData;
 import org.frogforce503.robot2025.subsystems.arm.ArmIO.ArmIOInputs;
 
@@ -19,6 +22,7 @@ public class ArmIOSpark<CANSparkMax, SparkMaxPIDController> implements ArmIO {
     private final CANSparkMax motor;
     private final RelativeEncoder encoder;
     private final SparkMaxPIDController pidController;
+    private final PolledSignal temperature;
 
  
     public ArmIOSpark() {
@@ -42,6 +46,9 @@ public class ArmIOSpark<CANSparkMax, SparkMaxPIDController> implements ArmIO {
         motor.setSmartCurrentLimit(CURRENT_LIMIT_AMPS);
         motor.setIdleMode(com.revrobotics.spark.config.SparkBaseConfig.IdleMode.kCoast);
         motor.burnFlash();
+
+        // Temperature moves over seconds, no need to read it every loop
+        temperature = SignalPoller.getInstance().register(motor::getMotorTemperature, Tier.TWO_HZ);
     }
 
    
@@ -55,7 +62,7 @@ public class ArmIOSpark<CANSparkMax, SparkMaxPIDController> implements ArmIO {
             motor.getOutputCurrent(),
             motor.getForwardLimitSwitch(com.revrobotics.SparkMaxLimitSwitch.Type.kNormallyOpen).isPressed(),
             motor.getReverseLimitSwitch(com.revrobotics.SparkMaxLimitSwitch.Type.kNormallyOpen).isPressed(),
-            new double[] {motor.getMotorTemperature()}
+            new double[] {temperature.getValue()}
         );
     }
 
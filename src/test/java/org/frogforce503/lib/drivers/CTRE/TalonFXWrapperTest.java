@@ -0,0 +1,71 @@
+package org.frogforce503.lib.drivers.CTRE;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.frogforce503.lib.drivers.CANMotor.MotorControlMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.hal.HAL;
+
+class TalonFXWrapperTest {
+    private static final MotorControlMode[] MODES = MotorControlMode.values();
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 10_000;
+
+    private static TalonFXWrapper motor;
+
+    @BeforeAll
+    static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        motor = new TalonFXWrapper(1);
+    }
+
+    @AfterAll
+    static void shutdown() {
+        motor.close();
+    }
+
+    private static void setEveryMode(int i) {
+        // A new value every call so dedup never skips the send
+        MotorControlMode mode = MODES[i % MODES.length];
+        motor.set(mode, (i % 100) * 0.01, (i % 7) * 0.1);
+    }
+
+    private static double sink;
+
+    @Test
+    void setDoesNotAllocate() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // Let the JIT settle and the control requests initialize their native state
+        for (int i = 0; i < WARMUP; i++) {
+            setEveryMode(i);
+        }
+
+        // Whatever reading the counter itself costs, measured around a loop that does nothing
+        long baselineStart = threads.getThreadAllocatedBytes(thread);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += i;
+        }
+
+        long baseline = threads.getThreadAllocatedBytes(thread) - baselineStart;
+        long before = threads.getThreadAllocatedBytes(thread);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            setEveryMode(i);
+        }
+
+        long allocated = threads.getThreadAllocatedBytes(thread) - before - baseline;
+
+        // The smallest object is 16 bytes, less than that over every call means none of them allocated
+        assertTrue(allocated < 16, "set() allocated " + allocated + " bytes over " + ITERATIONS + " calls");
+    }
+}
@@ -0,0 +1,258 @@
+package org.frogforce503.robot2025.auto;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.frogforce503.robot2025.Robot;
+import org.frogforce503.robot2025.RobotContainer;
+import org.frogforce503.robot2025.RobotStatus.AllianceColor;
+import org.frogforce503.robot2025.auto.AutoChooser.StartingLocation;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+
+/**
+ * Runs every {@link AutoChooser} routine, for both alliances and every {@link StartingLocation}, headless in HAL
+ * sim and as fast as the loop allows. Simulated time only advances by one period per loop through {@link SimHooks},
+ * so results do not depend on how loaded the machine is. Each run is a separate JVM (robot code is full of
+ * singletons), as many at once as there are cores, and reports its final pose, auto time and loop times. A run
+ * that does not end within {@link #RUN_TIMEOUT_SECONDS} of wall time is killed and fails.
+ * <p>
+ * Driven by {@link AutoRegressionTest}, which fails when no routine is registered:
+ *
+ * <pre>
+ * ./gradlew autoRegression                                  (every routine)
+ * ./gradlew autoRegression -Pauto="FourPiece BLUE LEFT"     (a single run)
+ * </pre>
+ */
+public final class AutoRegressionRunner {
+    private static final String RESULT_PREFIX = "AUTO_RESULT ";
+    private static final double AUTO_LENGTH = 15.0;
+    private static final long RUN_TIMEOUT_SECONDS = 120; // a healthy run takes seconds, this only catches hangs
+
+    /** Outcome of one routine on one alliance and starting location. */
+    record Run(String name, String result, boolean timedOut) {
+        boolean finished() {
+            return !timedOut && result != null && result.contains("finished=true");
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + (timedOut ? "TIMED OUT" : result == null ? "CRASHED" : result);
+        }
+    }
+
+    private AutoRegressionRunner() {}
+
+    /** Entry point of each child JVM, runs a single routine. */
+    public static void main(String... args) {
+        runSingle(args[0], AllianceColor.valueOf(args[1]), StartingLocation.valueOf(args[2]));
+    }
+
+    /**
+     * Every combination of registered routine, alliance and starting location, or only the one in the
+     * {@code autoRegression.only} system property ({@code "<routine> <RED|BLUE> <LEFT|CENTER|RIGHT>"}).
+     */
+    static List<String[]> listRuns() {
+        String only = System.getProperty("autoRegression.only", "").trim();
+
+        if (!only.isEmpty()) {
+            return Collections.singletonList(only.split("\\s+"));
+        }
+
+        HAL.initialize(500, 0);
+        RobotContainer.init();
+        List<String> routines = RobotContainer.autoChooser.getRoutineNames();
+
+        ArrayList<String[]> runs = new ArrayList<String[]>();
+
+        for (String routine : routines) {
+            for (AllianceColor color : AllianceColor.values()) {
+                for (StartingLocation location : StartingLocation.values()) {
+                    runs.add(new String[] {routine, color.name(), location.name()});
+                }
+            }
+        }
+
+        return runs;
+    }
+
+    /** Runs each combination in its own JVM, as many at once as there are cores. */
+    static List<Run> runAll(List<String[]> runs) throws Exception {
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        ArrayList<Future<Run>> futures = new ArrayList<Future<Run>>();
+
+        for (String[] run : runs) {
+            futures.add(executor.submit(() -> runChild(run)));
+        }
+
+        System.out.println(String.format("Running %d autos on %d JVMs at a time", runs.size(), parallelism));
+
+        ArrayList<Run> results = new ArrayList<Run>();
+
+        try {
+            for (Future<Run> future : futures) {
+                Run result = future.get();
+                System.out.println(result);
+                results.add(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
+
+    private static Run runChild(String[] run) throws Exception {
+        String name = String.join(" ", run);
+
+        // Own working directory per run, so logs and the motor config cache never collide
+        File workingDirectory = new File("build/auto-regression/" + String.join("-", run)).getAbsoluteFile();
+        workingDirectory.mkdirs();
+
+        ArrayList<String> command = new ArrayList<String>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-cp");
+        command.add(absoluteClasspath());
+        command.add("-Djava.library.path=" + System.getProperty("java.library.path"));
+        command.add(AutoRegressionRunner.class.getName());
+        command.addAll(Arrays.asList(run));
+
+        // Output goes to a file rather than a pipe, so a hung child can never block the reader
+        File log = new File(workingDirectory, "run.log");
+
+        Process process = new ProcessBuilder(command)
+            .directory(workingDirectory)
+            .redirectErrorStream(true)
+            .redirectOutput(log)
+            .start();
+
+        if (!process.waitFor(RUN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+            return new Run(name, null, true);
+        }
+
+        String result = null;
+
+        for (String line : Files.readAllLines(log.toPath())) {
+            if (line.startsWith(RESULT_PREFIX)) {
+                result = line.substring(RESULT_PREFIX.length());
+            }
+        }
+
+        return new Run(name, result, false);
+    }
+
+    /** Gradle's test workers are started with a short classpath, the task passes the full one explicitly. */
+    private static String absoluteClasspath() {
+        String classpath = System.getProperty("autoRegression.classpath", System.getProperty("java.class.path"));
+        String[] entries = classpath.split(File.pathSeparator);
+
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new File(entries[i]).getAbsolutePath();
+        }
+
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void runSingle(String routine, AllianceColor color, StartingLocation location) {
+        HAL.initialize(500, 0);
+        SimHooks.pauseTiming();
+
+        DriverStationSim.setAllianceStationId(color == AllianceColor.RED ? AllianceStationID.Red1 : AllianceStationID.Blue1);
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+
+        new RegressionRobot(routine, color, location).startCompetition();
+    }
+
+    /** Robot that selects one routine, steps simulated time every loop and exits once the routine is over. */
+    private static class RegressionRobot extends Robot {
+        private final String routine;
+        private final AllianceColor color;
+        private final StartingLocation location;
+
+        private final long[] loopNanos = new long[(int) (AUTO_LENGTH / 0.02) + 100];
+        private int loops = 0;
+        private long lastLoopNanos = 0;
+        private double autoStartTime = Double.NaN;
+        private final long wallStartNanos = System.nanoTime();
+
+        private RegressionRobot(String routine, AllianceColor color, StartingLocation location) {
+            this.routine = routine;
+            this.color = color;
+            this.location = location;
+        }
+
+        @Override
+        public void robotInit() {
+            super.robotInit();
+            RobotContainer.autoChooser.select(routine, color, location);
+        }
+
+        @Override
+        public void simulationPeriodic() {
+            super.simulationPeriodic();
+
+            long now = System.nanoTime();
+
+            if (lastLoopNanos != 0 && loops < loopNanos.length) {
+                loopNanos[loops++] = now - lastLoopNanos;
+            }
+
+            lastLoopNanos = now;
+
+            if (isAutonomousEnabled()) {
+                if (Double.isNaN(autoStartTime)) {
+                    autoStartTime = Timer.getFPGATimestamp();
+                }
+
+                double elapsed = Timer.getFPGATimestamp() - autoStartTime;
+                boolean finished = RobotContainer.autoChooser.isAutoFinished();
+
+                if (finished || elapsed >= AUTO_LENGTH) {
+                    report(finished, elapsed);
+                    System.exit(0);
+                }
+            }
+
+            SimHooks.stepTiming(getPeriod());
+        }
+
+        private void report(boolean finished, double elapsed) {
+            long[] sorted = Arrays.copyOf(loopNanos, loops);
+            Arrays.sort(sorted);
+
+            double meanMs = 0.0;
+            for (long nanos : sorted) {
+                meanMs += nanos / 1e6 / Math.max(1, loops);
+            }
+
+            double p99Ms = loops == 0 ? 0.0 : sorted[Math.min(loops - 1, (int) (loops * 0.99))] / 1e6;
+            double maxMs = loops == 0 ? 0.0 : sorted[loops - 1] / 1e6;
+            double wallSeconds = (System.nanoTime() - wallStartNanos) / 1e9;
+            Pose2d pose = RobotContainer.autoChooser.getPose();
+
+            System.out.println(RESULT_PREFIX + String.format(
+                "finished=%b autoTime=%.2fs pose=(%.3f, %.3f, %.1fdeg) loopMs(mean=%.3f p99=%.3f max=%.3f) speedup=%.1fx",
+                finished, elapsed, pose.getX(), pose.getY(), pose.getRotation().getDegrees(),
+                meanMs, p99Ms, maxMs, elapsed / Math.max(wallSeconds, 1e-9)
+            ));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.frogforce503.robot2025.auto;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.frogforce503.robot2025.auto.AutoRegressionRunner.Run;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Every auto routine must finish within the auto period, see {@link AutoRegressionRunner}. Run with {@code ./gradlew autoRegression}. */
+@Tag("autoRegression")
+class AutoRegressionTest {
+    @Test
+    void everyAutoFinishes() throws Exception {
+        List<String[]> runs = AutoRegressionRunner.listRuns();
+        // Skipped, not passed, so a robot without autos yet shows up as such instead of as green
+        assumeFalse(runs.isEmpty(), "No routines are registered with AutoChooser, there is nothing to run");
+
+        List<Run> results = AutoRegressionRunner.runAll(runs);
+        ArrayList<String> failures = new ArrayList<String>();
+
+        for (Run run : results) {
+            if (!run.finished()) {
+                failures.add(run.toString());
+            }
+        }
+
+        assertTrue(failures.isEmpty(), failures.size() + "/" + results.size() + " autos did not finish:\n" + String.join("\n", failures));
+    }
+}